@@ -0,0 +1,120 @@
+package com.pranav.synctask.models;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times DocumentCodec against the {@code toObjects(Task.class)} mapping it replaced, over one
+ * snapshot of 5,000 task documents. The documents are written to the local cache of a
+ * separate Firestore instance with its network off, so nothing reaches the project and the
+ * app's own cache is left alone. Timings go to logcat under this class's name.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DocumentCodecBenchmark {
+    private static final String TAG = "DocumentCodecBenchmark";
+    private static final String APP_NAME = "document-codec-benchmark";
+    private static final int SNAPSHOT_SIZE = 5_000;
+    // Firestore's limit on writes per batch
+    private static final int BATCH_SIZE = 500;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+    private static final String[] PRIORITIES = {Task.PRIORITY_LOW, Task.PRIORITY_NORMAL, Task.PRIORITY_HIGH};
+
+    private static FirebaseApp app;
+    private static FirebaseFirestore db;
+    private static QuerySnapshot snapshot;
+
+    @BeforeClass
+    public static void writeSnapshot() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        app = FirebaseApp.initializeApp(context, FirebaseApp.getInstance().getOptions(), APP_NAME);
+        db = FirebaseFirestore.getInstance(app);
+        Tasks.await(db.disableNetwork());
+
+        CollectionReference tasks = db.collection("tasks");
+        long now = System.currentTimeMillis();
+        WriteBatch batch = db.batch();
+        for (int i = 0; i < SNAPSHOT_SIZE; i++) {
+            Timestamp dueDate = i % 3 == 0 ? null : new Timestamp(new Date(now + i * 3_600_000L));
+            Task task = new Task("benchmark-user", "Task " + i, "Description of task " + i, dueDate, Task.TYPE_TASK);
+            task.setSpaceId("benchmark-space");
+            task.setPriority(PRIORITIES[i % PRIORITIES.length]);
+            batch.set(tasks.document(task.getLocalId()), task.toMap());
+            if ((i + 1) % BATCH_SIZE == 0) {
+                // Applied to the local cache at once; the commit itself never completes offline
+                batch.commit();
+                batch = db.batch();
+            }
+        }
+        snapshot = Tasks.await(tasks.get(Source.CACHE));
+        assertEquals(SNAPSHOT_SIZE, snapshot.size());
+    }
+
+    @AfterClass
+    public static void deleteSnapshot() throws Exception {
+        Tasks.await(db.terminate());
+        Tasks.await(db.clearPersistence());
+        app.delete();
+    }
+
+    private static List<Task> decodeWithCodec(QuerySnapshot snapshot) {
+        List<Task> tasks = new ArrayList<>(snapshot.size());
+        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+            tasks.add(DocumentCodec.decodeTask(doc));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void decodeTasks_codecAgainstToObjects() {
+        List<Task> decoded = decodeWithCodec(snapshot);
+        List<Task> mapped = snapshot.toObjects(Task.class);
+        assertEquals(decoded.size(), mapped.size());
+        for (int i = 0; i < decoded.size(); i++) {
+            assertEquals(mapped.get(i).getTitle(), decoded.get(i).getTitle());
+            assertEquals(mapped.get(i).getSortKey(), decoded.get(i).getSortKey());
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            decodeWithCodec(snapshot);
+            snapshot.toObjects(Task.class);
+        }
+        long codecNanos = 0;
+        long toObjectsNanos = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            decodeWithCodec(snapshot);
+            codecNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            snapshot.toObjects(Task.class);
+            toObjectsNanos += System.nanoTime() - start;
+        }
+        Log.i(TAG, String.format(Locale.ROOT, "%d documents: DocumentCodec %.2f ms, toObjects %.2f ms",
+                SNAPSHOT_SIZE, codecNanos / 1e6 / MEASURED_ROUNDS, toObjectsNanos / 1e6 / MEASURED_ROUNDS));
+    }
+}
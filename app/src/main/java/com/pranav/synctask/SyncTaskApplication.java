@@ -0,0 +1,82 @@
+package com.pranav.synctask;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Process;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.functions.FirebaseFunctions;
+import com.google.firebase.storage.FirebaseStorage;
+import com.pranav.synctask.data.SnapshotStore;
+import com.pranav.synctask.utils.StartupTrace;
+
+/**
+ * Runs startup once per process, whichever activity is launched first (the launcher or a
+ * notification). Only what the first screen needs runs on the main thread; SDKs used
+ * later are set up on a background thread afterwards.
+ */
+public class SyncTaskApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Settings must be applied before anything else touches Firestore
+        FirebaseFirestore.getInstance().setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setPersistenceEnabled(true)
+                .build());
+        StartupTrace.mark("Firestore configured");
+        SnapshotStore.init(this);
+
+        registerActivityLifecycleCallbacks(new FirstActivityTracer());
+        StartupTrace.mark("Application created");
+    }
+
+    // Storage is only used for profile photos and Functions not on any startup path
+    private static void initDeferredSdks() {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            FirebaseStorage.getInstance();
+            FirebaseFunctions.getInstance();
+            StartupTrace.mark("Deferred SDKs ready");
+        }, "deferred-sdk-init");
+        thread.start();
+    }
+
+    // Records the first activity's initial display, then starts the deferred work
+    private final class FirstActivityTracer implements ActivityLifecycleCallbacks {
+        @Override
+        public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+            StartupTrace.mark(activity.getClass().getSimpleName() + " created");
+        }
+
+        @Override
+        public void onActivityStarted(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityResumed(@NonNull Activity activity) {
+            if (activity.isFinishing()) return; // Routed elsewhere, e.g. from login to the dashboard
+            unregisterActivityLifecycleCallbacks(this);
+            StartupTrace.markFirstFrame(activity, SyncTaskApplication::initDeferredSdks);
+        }
+
+        @Override
+        public void onActivityPaused(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(@NonNull Activity activity) {
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.pranav.synctask.activities;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.google.firebase.auth.FirebaseAuth;
+import com.pranav.synctask.R;
+import com.pranav.synctask.adapters.TaskAdapter;
+import com.pranav.synctask.data.Result;
+import com.pranav.synctask.models.Task;
+import com.pranav.synctask.ui.viewmodels.ArchiveViewModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Read-only list of a space's archived tasks, paged in from the server as it is scrolled. */
+public class ArchiveActivity extends AppCompatActivity {
+    private static final String TAG = "ArchiveActivity";
+    // Rows from the end at which the next page is requested
+    private static final int LOAD_MORE_THRESHOLD = 10;
+
+    private String currentSpaceId;
+    private ArchiveViewModel viewModel;
+    private TaskAdapter adapter;
+    private RecyclerView recyclerView;
+    private TextView emptyView;
+    private ProgressBar progressBar;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_archive);
+
+        currentSpaceId = getIntent().getStringExtra("SPACE_ID");
+        if (currentSpaceId == null || currentSpaceId.isEmpty()) {
+            Toast.makeText(this, "Error: No Space ID provided.", Toast.LENGTH_LONG).show();
+            finish();
+            return;
+        }
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+        toolbar.setNavigationOnClickListener(v -> finish());
+
+        recyclerView = findViewById(R.id.recycler_view);
+        emptyView = findViewById(R.id.empty_view);
+        progressBar = findViewById(R.id.archive_progress_bar);
+        viewModel = new ViewModelProvider(this).get(ArchiveViewModel.class);
+
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
+        adapter = new TaskAdapter(this, new ArrayList<>(),
+                viewModel.getItemMapper(this, FirebaseAuth.getInstance().getUid()));
+        recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                loadMoreIfNearEnd();
+            }
+        });
+
+        viewModel.getArchivedTasks().observe(this, result -> {
+            progressBar.setVisibility(result instanceof Result.Loading ? View.VISIBLE : View.GONE);
+            if (result instanceof Result.Success) {
+                List<Task> tasks = ((Result.Success<List<Task>>) result).data;
+                adapter.setTasks(tasks);
+                boolean isEmpty = tasks.isEmpty() && !viewModel.hasMore();
+                emptyView.setVisibility(isEmpty ? View.VISIBLE : View.GONE);
+                // A first page too short to scroll would never ask for the next one
+                recyclerView.post(this::loadMoreIfNearEnd);
+            } else if (result instanceof Result.Error) {
+                Log.e(TAG, "Error loading archived tasks", ((Result.Error<List<Task>>) result).exception);
+                Toast.makeText(this, "Error loading archived tasks.", Toast.LENGTH_SHORT).show();
+            }
+        });
+
+        // Pages already loaded survive a configuration change
+        if (viewModel.getArchivedTasks().getValue() == null) {
+            viewModel.loadMore(currentSpaceId);
+        }
+    }
+
+    private void loadMoreIfNearEnd() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - 1 - LOAD_MORE_THRESHOLD) {
+            viewModel.loadMore(currentSpaceId);
+        }
+    }
+}
@@ -133,7 +133,7 @@ public class CreateTaskActivity extends AppCompatActivity {
         newTask.setSpaceId(currentSpaceId);
         newTask.setOwnershipScope(ownershipScope); // --- ADDED ---
 
-        viewModel.createTask(newTask, this).observe(this, result -> {
+        viewModel.createTask(newTask).observe(this, result -> {
             if (result instanceof Result.Success) {
                 Toast.makeText(this, "Task created!", Toast.LENGTH_SHORT).show();
                 finish();
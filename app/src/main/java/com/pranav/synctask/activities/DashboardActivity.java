@@ -25,6 +25,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
+import com.google.android.material.snackbar.Snackbar;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.messaging.FirebaseMessaging;
@@ -47,6 +48,8 @@ public class DashboardActivity extends AppCompatActivity {
     private SpacesAdapter spacesAdapter;
     private RecyclerView spacesRecyclerView;
     private FloatingActionButton fabAddSpace;
+    // Shown while a space's tasks are being deleted
+    private Snackbar deletionProgressBar;
 
     private final ActivityResultLauncher<String> requestPermissionLauncher =
             registerForActivityResult(new ActivityResultContracts.RequestPermission(), isGranted -> {
@@ -82,6 +85,9 @@ public class DashboardActivity extends AppCompatActivity {
         observeViewModel();
         askNotificationPermission();
         updateFcmToken();
+        if (currentUser != null) {
+            viewModel.resumeSpaceDeletions(this, currentUser.getUid());
+        }
     }
 
     private void setupRecyclerView() {
@@ -219,6 +225,24 @@ public class DashboardActivity extends AppCompatActivity {
             }
         });
         // --- END NEW ---
+
+        // Large spaces take a while to delete, so show how far along it is
+        viewModel.getSpaceDeletionProgress().observe(this, deleted -> {
+            if (deleted == null) {
+                if (deletionProgressBar != null) {
+                    deletionProgressBar.dismiss();
+                    deletionProgressBar = null;
+                }
+                return;
+            }
+            String message = "Deleting tasks... " + deleted + " removed";
+            if (deletionProgressBar == null) {
+                deletionProgressBar = Snackbar.make(spacesRecyclerView, message, Snackbar.LENGTH_INDEFINITE);
+                deletionProgressBar.show();
+            } else {
+                deletionProgressBar.setText(message);
+            }
+        });
     }
 
     private void showInviteCodeDialog(String spaceName, String inviteCode) {
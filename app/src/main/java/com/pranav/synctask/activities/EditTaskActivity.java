@@ -45,6 +45,7 @@ public class EditTaskActivity extends AppCompatActivity {
         }
 
         viewModel = new ViewModelProvider(this).get(EditTaskViewModel.class);
+        viewModel.setOpenedTask(currentTask);
 
         etTitle = findViewById(R.id.et_task_title);
         etDescription = findViewById(R.id.et_task_description);
@@ -97,6 +98,8 @@ public class EditTaskActivity extends AppCompatActivity {
         if (currentTask.getDueDate() != null) {
             selectedDueDate.setTime(currentTask.getDueDate().toDate());
             SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+            // The picked day, as the date picker stored it
+            sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
             etDueDate.setText(sdf.format(selectedDueDate.getTime()));
         }
     }
@@ -119,7 +122,7 @@ public class EditTaskActivity extends AppCompatActivity {
             currentTask.setDueDate(null);
         }
 
-        viewModel.updateTask(currentTask).observe(this, result -> {
+        viewModel.updateTask(currentTask, this).observe(this, result -> {
             if (result instanceof Result.Success) {
                 Toast.makeText(this, "Task updated!", Toast.LENGTH_SHORT).show();
                 finish();
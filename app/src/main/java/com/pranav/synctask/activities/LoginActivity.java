@@ -22,8 +22,6 @@ import com.google.firebase.auth.AuthCredential;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.GoogleAuthProvider;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.FirebaseFirestoreSettings;
 import com.pranav.synctask.R;
 import com.pranav.synctask.data.Result; // CHANGED: Added import
 import com.pranav.synctask.data.UserRepository; // CHANGED: Added import
@@ -57,15 +55,14 @@ public class LoginActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_login);
-
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        FirebaseFirestoreSettings settings = new FirebaseFirestoreSettings.Builder()
-                .setPersistenceEnabled(true)
-                .build();
-        db.setFirestoreSettings(settings);
-
+        // Firestore is configured in SyncTaskApplication
         mAuth = FirebaseAuth.getInstance();
+        if (mAuth.getCurrentUser() != null) {
+            // Already signed in: go straight on without building the sign-in screen
+            goToDashboard();
+            return;
+        }
+        setContentView(R.layout.activity_login);
 
         GoogleSignInOptions gso = new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN)
                 .requestIdToken(getString(R.string.default_web_client_id))
@@ -84,12 +81,18 @@ public class LoginActivity extends AppCompatActivity {
     public void onStart() {
         super.onStart();
         FirebaseUser currentUser = mAuth.getCurrentUser();
-        if (currentUser != null) {
-            startActivity(new Intent(LoginActivity.this, DashboardActivity.class));
-            finish();
+        if (currentUser != null && !isFinishing()) {
+            goToDashboard();
         }
     }
 
+    private void goToDashboard() {
+        startActivity(new Intent(LoginActivity.this, DashboardActivity.class));
+        finish();
+        // No transition, the login screen was never shown
+        overridePendingTransition(0, 0);
+    }
+
     private void signIn() {
         Intent signInIntent = mGoogleSignInClient.getSignInIntent();
         signInLauncher.launch(signInIntent);
@@ -117,8 +120,7 @@ public class LoginActivity extends AppCompatActivity {
         UserRepository.getInstance().createOrUpdateUser(firebaseUser).observe(this, result -> {
             if (result instanceof Result.Success) {
                 // After user profile is created or updated, go to the dashboard.
-                startActivity(new Intent(LoginActivity.this, DashboardActivity.class));
-                finish();
+                goToDashboard();
             } else if (result instanceof Result.Error) {
                 Log.e(TAG, "Error creating/updating user", ((Result.Error<User>) result).exception);
                 Toast.makeText(LoginActivity.this, "Error setting up user profile.",
@@ -18,6 +18,7 @@ import com.google.android.material.tabs.TabLayoutMediator;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.pranav.synctask.R;
+import com.pranav.synctask.adapters.TaskViewPool;
 import com.pranav.synctask.adapters.ViewPagerAdapter;
 import com.pranav.synctask.ui.viewmodels.TasksViewModel;
 
@@ -26,6 +27,8 @@ public class MainActivity extends AppCompatActivity {
     private FirebaseAuth mAuth;
     private TasksViewModel viewModel;
     private String currentSpaceId; // ADDED
+    // Task rows shared by the four tabs
+    private final TaskViewPool taskViewPool = new TaskViewPool();
 
     @Override
     protected void onNewIntent(@NonNull Intent intent) {
@@ -50,6 +53,10 @@ public class MainActivity extends AppCompatActivity {
 
         mAuth = FirebaseAuth.getInstance();
         viewModel = new ViewModelProvider(this).get(TasksViewModel.class);
+        FirebaseUser user = mAuth.getCurrentUser();
+        if (user != null) {
+            taskViewPool.prewarm(this, viewModel.getItemMapper(this, user.getUid()));
+        }
 
         Toolbar toolbar = findViewById(R.id.toolbar);
         setSupportActionBar(toolbar);
@@ -87,6 +94,10 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    public TaskViewPool getTaskViewPool() {
+        return taskViewPool;
+    }
+
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.main_menu, menu);
@@ -114,6 +125,12 @@ public class MainActivity extends AppCompatActivity {
             startActivity(new Intent(this, ProfileActivity.class));
             return true;
         }
+        if (item.getItemId() == R.id.action_archive) {
+            Intent intent = new Intent(this, ArchiveActivity.class);
+            intent.putExtra("SPACE_ID", currentSpaceId);
+            startActivity(intent);
+            return true;
+        }
         return super.onOptionsItemSelected(item);
     }
 
@@ -126,7 +143,7 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
         // MODIFIED: Pass spaceId to load tasks
-        viewModel.loadTasks(currentSpaceId);
+        viewModel.loadTasks(currentSpaceId, this);
     }
 
     private void goToLogin() {
@@ -25,6 +25,7 @@ import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.UserProfileChangeRequest;
 import com.pranav.synctask.R;
 import com.pranav.synctask.data.Result;
+import com.pranav.synctask.data.SnapshotStore;
 import com.pranav.synctask.models.User;
 import com.pranav.synctask.ui.viewmodels.ProfileViewModel;
 
@@ -181,6 +182,7 @@ public class ProfileActivity extends AppCompatActivity {
 
     private void logoutUser() {
         mAuth.signOut();
+        SnapshotStore.getInstance().clear();
         mGoogleSignInClient.signOut().addOnCompleteListener(this, task -> goToLogin());
     }
 
@@ -94,11 +94,11 @@ public class SpacesAdapter extends RecyclerView.Adapter<SpacesAdapter.SpaceViewH
                             break;
                         case leaveOption:
                             showConfirmationDialog("Leave", "Are you sure you want to leave this space?",
-                                    () -> getViewModel().leaveSpace(space.getSpaceId()));
+                                    () -> getViewModel().leaveSpace(space.getSpaceId(), context));
                             break;
                         case deleteOption:
                             showConfirmationDialog("Delete", "Are you sure? This will delete the space and all its tasks for EVERYONE.",
-                                    () -> getViewModel().deleteSpace(space.getSpaceId()));
+                                    () -> getViewModel().deleteSpace(space.getSpaceId(), context));
                             break;
                     }
                 })
@@ -11,28 +11,40 @@ import android.widget.CheckBox;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.DiffUtil;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.pranav.synctask.R;
 import com.pranav.synctask.activities.EditTaskActivity;
+import com.pranav.synctask.data.TaskChange;
+import com.pranav.synctask.data.TaskMergeEngine;
 import com.pranav.synctask.data.TaskRepository;
+import com.pranav.synctask.data.TaskSearch;
 import com.pranav.synctask.models.Task; 
-import com.pranav.synctask.utils.DateUtils;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 
 public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder> {
 
     private List<Task> taskList;
     private final Context context; 
-    private final String currentUserId;
+    private final TaskItemMapper itemMapper;
     private int lastPosition = -1;
-
-    public TaskAdapter(Context context, List<Task> taskList, String currentUserId) { 
+    // Same row, new content: rebind without replaying the entry animation
+    private static final Object PAYLOAD_CONTENT = new Object();
+    private static final int RUN_INSERTED = 1;
+    private static final int RUN_REMOVED = 2;
+    // Pending range notification while applying changes
+    private int runType;
+    private int runStart;
+    private int runCount;
+
+    public TaskAdapter(Context context, List<Task> taskList, TaskItemMapper itemMapper) { 
         this.context = context;
         this.taskList = taskList; 
-        this.currentUserId = currentUserId;
+        this.itemMapper = itemMapper;
     }
 
     @NonNull
@@ -40,194 +52,141 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
     public TaskViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_task, parent, false);
-        return new TaskViewHolder(view); 
+        return new TaskViewHolder(view, itemMapper);
     }
 
     @Override
-    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-        Task task = taskList.get(position);
-        if (task == null) return; 
-
-        // --- PERMISSIONS LOGIC (PHASE 2) ---
-        String scope = task.getOwnershipScope();
-        // Fallback for older tasks that might not have a scope
-        if (scope == null) {
-            scope = Task.SCOPE_SHARED; 
-        }
-
-        boolean isCreator = currentUserId != null && currentUserId.equals(task.getCreatorUID());
-
-        boolean canEdit = false;
-        boolean canComplete = false; 
-        boolean canDelete = false;
-
-        // --- MODIFICATION: This logic is fixed ---
-        switch (scope) {
-            case Task.SCOPE_INDIVIDUAL:
-                // Both users can see it, but only the creator can interact.
-                if (isCreator) {
-                    canEdit = true;
-                    canComplete = true;
-                    canDelete = true;
-                } else {
-                    // Partner can see, but not edit, complete, or delete.
-                    canEdit = false;
-                    canComplete = false;
-                    canDelete = false;
-                }
-                break;
-            // --- END MODIFICATION ---
-
-            case Task.SCOPE_SHARED:
-                // Both users can do everything
-                canEdit = true;
-                canComplete = true; 
-                canDelete = true;
-                break;
-            case Task.SCOPE_ASSIGNED:
-                if (isCreator) {
-                    // I created it, I can edit/delete but not complete
-                    canEdit = true;
-                    canDelete = true; 
-                    canComplete = false; // Only assignee can complete
-                } else {
-                    // It's assigned to me.
-                    // I can complete, but not edit/delete
-                    canEdit = false; 
-                    canDelete = false; 
-                    canComplete = true;
-                }
-                break;
+    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.bind(itemMapper.map(taskList.get(position)));
         }
+    }
 
-        // --- END PERMISSIONS LOGIC ---
-
-
-        // --- APPLY UI AND PERMISSIONS ---
-
-        holder.tvTitle.setText(task.getTitle());
-        holder.tvDescription.setText(task.getDescription()); 
-        holder.tvDescription.setVisibility(task.getDescription().isEmpty() ? View.GONE : View.VISIBLE);
-
-        if (task.getDueDate() != null) {
-            holder.tvDueDate.setText(DateUtils.formatDate(task.getDueDate()));
-            holder.tvDueDate.setVisibility(View.VISIBLE); 
-        } else {
-            holder.tvDueDate.setVisibility(View.GONE); 
+    @Override
+    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
+        holder.bind(itemMapper.map(taskList.get(position)));
+        if (position > lastPosition) {
+            holder.itemView.startAnimation(holder.fadeIn);
+            lastPosition = position;
         }
+    }
 
-        holder.tvCreator.setText(isCreator ? R.string.task_creator_label_you : R.string.task_creator_label_partner); 
-        holder.sideBar.setBackgroundColor(isCreator ?
-                context.getResources().getColor(R.color.my_task_bg, null) :
-                context.getResources().getColor(R.color.partner_task_bg, null)); 
+    // Task under the holder, or null while its position is being updated
+    private Task taskAt(RecyclerView.ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position != RecyclerView.NO_POSITION ? taskList.get(position) : null;
+    }
 
-        switch (task.getTaskType()) {
-            case Task.TYPE_REMINDER:
-                holder.ivTaskType.setImageResource(R.drawable.ic_task_type_reminder); 
-                break;
-            case Task.TYPE_UPDATE:
-                holder.ivTaskType.setImageResource(R.drawable.ic_task_type_update); 
-                break;
-            case Task.TYPE_TASK:
-            default:
-                holder.ivTaskType.setImageResource(R.drawable.ic_task_type_task); 
-                break;
-        }
+    @Override
+    public int getItemCount() {
+        return taskList.size(); 
+    }
 
-        holder.ivPriority.setVisibility(View.VISIBLE); 
-        switch (task.getPriority()) {
-            case "High":
-                holder.ivPriority.setImageResource(R.drawable.ic_priority_high); 
-                break;
-            case "Low":
-                holder.ivPriority.setImageResource(R.drawable.ic_priority_low); 
-                break;
-            default: // Normal priority
-                holder.ivPriority.setVisibility(View.GONE); 
-                break;
-        }
+    // Copy of the rows from first to last, inclusive
+    public List<Task> getTasks(int first, int last) {
+        if (first < 0 || last < first) return new ArrayList<>();
+        return new ArrayList<>(taskList.subList(first, Math.min(last + 1, taskList.size())));
+    }
 
-        if (task.isSynced()) {
-            holder.itemView.setAlpha(1.0f);
-            holder.tvCreator.setText(isCreator ? R.string.task_creator_label_you : R.string.task_creator_label_partner); 
-        } else {
-            holder.itemView.setAlpha(0.7f);
-            holder.tvCreator.setText(R.string.task_creator_label_local); 
-        }
+    // Replaces every row, for when no change set applies (another space, a new search)
+    public void setTasks(List<Task> tasks) {
+        this.taskList.clear();
+        this.taskList.addAll(tasks);
+        notifyDataSetChanged();
+    }
 
-        // Apply completion permission
-        // Apply completion permission
-        if (canComplete) {
-            // If user can complete, show and enable the checkbox
-            holder.cbStatus.setVisibility(View.VISIBLE);
-            holder.cbStatus.setEnabled(true);
-            holder.cbStatus.setOnCheckedChangeListener(null);
-            holder.cbStatus.setChecked(Task.STATUS_COMPLETED.equals(task.getStatus()));
-            holder.cbStatus.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                if (buttonView.isPressed()) {
-                    String newStatus = isChecked ? Task.STATUS_COMPLETED : Task.STATUS_PENDING;
-                    TaskRepository.getInstance().updateTaskStatus(task.getId(), newStatus);
+    /**
+     * Patches the rows with one emission's changes instead of diffing the whole list.
+     * {@code slice} is this list's new content before searching and must be in display order;
+     * changes to tasks outside it or not matching the search are dropped. Each change costs
+     * a binary search, and neighbouring inserts or removals are sent as one range.
+     */
+    public void applyChanges(List<TaskChange> changes, List<Task> slice, TaskSearch search) {
+        for (TaskChange change : changes) {
+            int from = change.before != null ? indexOf(change.before) : -1;
+            boolean show = change.after != null && search.matches(change.after) && contains(slice, change.after);
+            if (from >= 0 && show) {
+                flushRun();
+                taskList.remove(from);
+                int to = insertionPoint(change.after);
+                taskList.add(to, change.after);
+                if (from != to) {
+                    notifyItemMoved(from, to);
                 }
-            });
-        } else {
-            // If user CANNOT complete, hide the checkbox
-            holder.cbStatus.setVisibility(View.INVISIBLE); // Using INVISIBLE keeps the layout aligned
-            holder.cbStatus.setEnabled(false);
-            holder.cbStatus.setOnCheckedChangeListener(null);
-            holder.cbStatus.setChecked(Task.STATUS_COMPLETED.equals(task.getStatus()));
-        }
-        // Apply deletion permission
-        holder.ivDelete.setVisibility(canDelete ? View.VISIBLE : View.GONE); 
-        if (canDelete) {
-            holder.ivDelete.setOnClickListener(v -> TaskRepository.getInstance().deleteTask(task.getId())); 
-        } else {
-            holder.ivDelete.setOnClickListener(null); 
+                notifyItemChanged(to, PAYLOAD_CONTENT);
+            } else if (from >= 0) {
+                taskList.remove(from);
+                addToRun(RUN_REMOVED, from);
+            } else if (show) {
+                int to = insertionPoint(change.after);
+                taskList.add(to, change.after);
+                addToRun(RUN_INSERTED, to);
+            }
         }
+        flushRun();
+    }
 
-        // Apply edit/view permission
-        if (canEdit) {
-            holder.itemView.setOnClickListener(v -> {
-                Intent intent = new Intent(context, EditTaskActivity.class);
-                intent.putExtra(EditTaskActivity.EXTRA_TASK, task);
-                context.startActivity(intent);
-            });
-        } else {
-            // It's view-only
-            holder.itemView.setOnClickListener(null);
-            holder.itemView.setClickable(false); // Explicitly make it not clickable
+    private int indexOf(Task task) {
+        int index = Collections.binarySearch(taskList, task, TaskMergeEngine.DISPLAY_ORDER_TASKS);
+        if (index >= 0 && taskList.get(index) == task) {
+            return index;
+        }
+        // Edited in place since it was added, so its sort key may be stale
+        for (int i = 0; i < taskList.size(); i++) {
+            if (taskList.get(i) == task) return i;
         }
+        return -1;
+    }
 
-        setAnimation(holder.itemView, position); 
+    private int insertionPoint(Task task) {
+        int index = Collections.binarySearch(taskList, task, TaskMergeEngine.DISPLAY_ORDER_TASKS);
+        return index >= 0 ? index : -index - 1;
     }
 
-    private void setAnimation(View viewToAnimate, int position) {
-        if (position > lastPosition) {
-            Animation animation = AnimationUtils.loadAnimation(context, R.anim.fade_in);
-            viewToAnimate.startAnimation(animation); 
-            lastPosition = position;
-        }
+    private static boolean contains(List<Task> sortedTasks, Task task) {
+        int index = Collections.binarySearch(sortedTasks, task, TaskMergeEngine.DISPLAY_ORDER_TASKS);
+        return index >= 0 && sortedTasks.get(index) == task;
     }
 
-    @Override
-    public int getItemCount() {
-        return taskList.size(); 
+    // Removals at the same position, or inserts right after each other, extend the run
+    private void addToRun(int type, int position) {
+        boolean continuesRun = runType == type
+                && (type == RUN_REMOVED ? position == runStart : position == runStart + runCount);
+        if (!continuesRun) {
+            flushRun();
+            runType = type;
+            runStart = position;
+        }
+        runCount++;
     }
 
-    public void updateTasks(List<Task> newTasks) {
-        TaskDiffCallback diffCallback = new TaskDiffCallback(this.taskList, newTasks);
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(diffCallback); 
-        this.taskList.clear();
-        this.taskList.addAll(newTasks);
-        diffResult.dispatchUpdatesTo(this);
+    private void flushRun() {
+        if (runCount > 0) {
+            if (runType == RUN_INSERTED) {
+                notifyItemRangeInserted(runStart, runCount);
+            } else {
+                notifyItemRangeRemoved(runStart, runCount);
+            }
+        }
+        runType = 0;
+        runCount = 0;
     }
 
+    /**
+     * Listeners are set once per holder and look the task up by position when they fire.
+     * Holders come from a pool shared by every tab, so they ask whichever adapter they are
+     * bound to rather than the one that created them.
+     */
     static class TaskViewHolder extends RecyclerView.ViewHolder {
         TextView tvTitle, tvDescription, tvDueDate, tvCreator;
         CheckBox cbStatus; 
         ImageView ivDelete, ivTaskType, ivPriority;
         View sideBar;
+        final Animation fadeIn;
 
-        public TaskViewHolder(@NonNull View itemView) {
+        public TaskViewHolder(@NonNull View itemView, TaskItemMapper itemMapper) {
             super(itemView);
             tvTitle = itemView.findViewById(R.id.tv_task_title); 
             tvDescription = itemView.findViewById(R.id.tv_task_description);
@@ -238,49 +197,73 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             ivTaskType = itemView.findViewById(R.id.iv_task_type); 
             ivPriority = itemView.findViewById(R.id.iv_task_priority);
             sideBar = itemView.findViewById(R.id.side_bar);
-        }
-    }
+            fadeIn = AnimationUtils.loadAnimation(itemView.getContext(), R.anim.fade_in);
+            itemMapper.onTextViews(tvTitle, tvDescription);
 
-    private static class TaskDiffCallback extends DiffUtil.Callback {
-        private final List<Task> oldList;
-        private final List<Task> newList; 
-
-        public TaskDiffCallback(List<Task> oldList, List<Task> newList) {
-            this.oldList = oldList;
-            this.newList = newList; 
-        }
-
-        @Override
-        public int getOldListSize() {
-            return oldList.size(); 
+            cbStatus.setOnCheckedChangeListener((buttonView, isChecked) -> {
+                TaskAdapter adapter = boundAdapter();
+                Task task = adapter != null ? adapter.taskAt(this) : null;
+                if (task != null && buttonView.isPressed()) {
+                    String newStatus = isChecked ? Task.STATUS_COMPLETED : Task.STATUS_PENDING;
+                    TaskRepository.getInstance().updateTaskStatus(task, newStatus);
+                }
+            });
+            ivDelete.setOnClickListener(v -> {
+                TaskAdapter adapter = boundAdapter();
+                Task task = adapter != null ? adapter.taskAt(this) : null;
+                if (task != null) {
+                    TaskRepository.getInstance().deleteTask(task);
+                }
+            });
+            itemView.setOnClickListener(v -> {
+                TaskAdapter adapter = boundAdapter();
+                Task task = adapter != null ? adapter.taskAt(this) : null;
+                if (task != null && adapter.itemMapper.map(task).canEdit) {
+                    Intent intent = new Intent(adapter.context, EditTaskActivity.class);
+                    intent.putExtra(EditTaskActivity.EXTRA_TASK, task);
+                    adapter.context.startActivity(intent);
+                }
+            });
         }
 
-        @Override
-        public int getNewListSize() {
-            return newList.size(); 
+        private TaskAdapter boundAdapter() {
+            return (TaskAdapter) getBindingAdapter();
         }
 
-        @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            Task oldTask = oldList.get(oldItemPosition);
-            Task newTask = newList.get(newItemPosition); 
-            if (!oldTask.isSynced() || !newTask.isSynced()) {
-                return Objects.equals(oldTask.getLocalId(), newTask.getLocalId()); 
+        void bind(TaskItemUiModel model) {
+            setText(tvTitle, model.title);
+            setText(tvDescription, model.description);
+            tvDescription.setVisibility(model.descriptionVisibility);
+            tvDueDate.setText(model.dueDateText);
+            tvDueDate.setVisibility(model.dueDateVisibility);
+            tvCreator.setText(model.creatorLabelRes);
+            sideBar.setBackgroundColor(model.sideBarColor);
+            ivTaskType.setImageResource(model.taskTypeIconRes);
+            if (model.priorityIconRes != 0) {
+                ivPriority.setImageResource(model.priorityIconRes);
             }
-            return oldTask.getId().equals(newTask.getId()); 
+            ivPriority.setVisibility(model.priorityVisibility);
+            itemView.setAlpha(model.alpha);
+            // Not pressed, so the status listener ignores this
+            cbStatus.setChecked(model.checked);
+            cbStatus.setVisibility(model.checkboxVisibility);
+            cbStatus.setEnabled(model.canComplete);
+            ivDelete.setVisibility(model.deleteVisibility);
+            // View-only rows are not clickable
+            itemView.setClickable(model.canEdit);
         }
 
-        @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            Task oldTask = oldList.get(oldItemPosition);
-            Task newTask = newList.get(newItemPosition); 
-            return Objects.equals(oldTask.getTitle(), newTask.getTitle()) &&
-                    Objects.equals(oldTask.getDescription(), newTask.getDescription()) &&
-                    Objects.equals(oldTask.getStatus(), newTask.getStatus()) &&
-                    Objects.equals(oldTask.getDueDate(), newTask.getDueDate()) &&
-                    Objects.equals(oldTask.getPriority(), newTask.getPriority()) &&
-                    Objects.equals(oldTask.getOwnershipScope(), newTask.getOwnershipScope()) && // ADDED 
-                    oldTask.isSynced() == newTask.isSynced();
+        private void setText(TextView view, CharSequence text) {
+            if (text instanceof PrecomputedTextCompat) {
+                try {
+                    TextViewCompat.setPrecomputedText(view, (PrecomputedTextCompat) text);
+                    return;
+                } catch (IllegalArgumentException e) {
+                    // Precomputed for other metrics, e.g. before a font scale change
+                    text = text.toString();
+                }
+            }
+            view.setText(text);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,207 @@
+package com.pranav.synctask.adapters;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.TextView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import com.pranav.synctask.R;
+import com.pranav.synctask.models.Task;
+import com.pranav.synctask.utils.DateUtils;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Turns tasks into {@link TaskItemUiModel}s for the current user, caching one per task.
+ * Tasks are replaced rather than edited when their content changes, so the cache is keyed
+ * by task identity; the few fields that are edited in place are checked on lookup. Call
+ * {@link #prefetch(List)} off the main thread so binding only ever hits the cache.
+ * Once the row's text metrics are known, prefetching also lays out titles and descriptions
+ * as PrecomputedText; models built on the main thread keep plain text.
+ */
+public class TaskItemMapper {
+
+    // Text metrics of the title and description views; models are cached per instance
+    static final class TextMetrics {
+        final PrecomputedTextCompat.Params title;
+        final PrecomputedTextCompat.Params description;
+
+        TextMetrics(PrecomputedTextCompat.Params title, PrecomputedTextCompat.Params description) {
+            this.title = title;
+            this.description = description;
+        }
+    }
+
+    private final String currentUserId;
+    private final int myTaskColor;
+    private final int partnerTaskColor;
+    // Own instance, DateUtils' shared one must stay on the main thread
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat(DateUtils.DATE_PATTERN, Locale.getDefault());
+    private final Map<Task, TaskItemUiModel> cache = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Executor backgroundExecutor;
+    private volatile TextMetrics textMetrics;
+    // Tasks of the latest index, prefetched again when the text metrics change
+    private volatile List<Task> currentTasks = Collections.emptyList();
+
+    public TaskItemMapper(Context context, String currentUserId, Executor backgroundExecutor) {
+        this.currentUserId = currentUserId;
+        this.backgroundExecutor = backgroundExecutor;
+        this.myTaskColor = context.getResources().getColor(R.color.my_task_bg, null);
+        this.partnerTaskColor = context.getResources().getColor(R.color.partner_task_bg, null);
+        // Due dates are midnight UTC of the picked day, see DateUtils.dueDay()
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    public void setCurrentTasks(List<Task> tasks) {
+        currentTasks = tasks;
+    }
+
+    /**
+     * Called with a bound row's text views. Their styles are the same for every row, so
+     * only a change (e.g. of font scale) triggers precomputing the current tasks again.
+     */
+    public void onTextViews(TextView title, TextView description) {
+        PrecomputedTextCompat.Params titleParams = TextViewCompat.getTextMetricsParams(title);
+        PrecomputedTextCompat.Params descriptionParams = TextViewCompat.getTextMetricsParams(description);
+        TextMetrics current = textMetrics;
+        if (current != null && current.title.equals(titleParams) && current.description.equals(descriptionParams)) {
+            return;
+        }
+        textMetrics = new TextMetrics(titleParams, descriptionParams);
+        backgroundExecutor.execute(() -> prefetch(currentTasks));
+    }
+
+    // Background thread: builds missing models and precomputes their text
+    public void prefetch(List<Task> tasks) {
+        TextMetrics metrics = textMetrics;
+        for (Task task : tasks) {
+            TaskItemUiModel model = cache.get(task);
+            if (model == null || !model.isCurrentFor(task) || (metrics != null && model.textMetrics != metrics)) {
+                cache.put(task, build(task, metrics));
+            }
+        }
+    }
+
+    // Main thread: never precomputes, a model not prefetched yet gets plain text
+    public TaskItemUiModel map(Task task) {
+        TaskItemUiModel model = cache.get(task);
+        if (model == null || !model.isCurrentFor(task)) {
+            model = build(task, null);
+            cache.put(task, model);
+        }
+        return model;
+    }
+
+    private static CharSequence layOut(String text, PrecomputedTextCompat.Params params) {
+        return params != null && !text.isEmpty() ? PrecomputedTextCompat.create(text, params) : text;
+    }
+
+    private TaskItemUiModel build(Task task, TextMetrics metrics) {
+        // --- PERMISSIONS LOGIC (PHASE 2) ---
+        byte scope = task.getOwnershipScopeCode();
+        // Fallback for older tasks that might not have a scope
+        if (scope == Task.CODE_NONE) {
+            scope = Task.SCOPE_CODE_SHARED;
+        }
+        boolean isCreator = currentUserId != null && currentUserId.equals(task.getCreatorUID());
+        boolean canEdit = false;
+        boolean canComplete = false;
+        boolean canDelete = false;
+        switch (scope) {
+            case Task.SCOPE_CODE_INDIVIDUAL:
+                // Both users can see it, but only the creator can interact.
+                canEdit = isCreator;
+                canComplete = isCreator;
+                canDelete = isCreator;
+                break;
+            case Task.SCOPE_CODE_SHARED:
+                // Both users can do everything
+                canEdit = true;
+                canComplete = true;
+                canDelete = true;
+                break;
+            case Task.SCOPE_CODE_ASSIGNED:
+                // The creator can edit/delete, only the assignee can complete
+                canEdit = isCreator;
+                canDelete = isCreator;
+                canComplete = !isCreator;
+                break;
+        }
+        boolean showCheckbox = canComplete;
+        if (task.isArchived()) {
+            // Shown as it was completed, but there is no live task left to change
+            showCheckbox = true;
+            canEdit = false;
+            canComplete = false;
+            canDelete = false;
+        }
+
+        String description = task.getDescription() != null ? task.getDescription() : "";
+        String dueDateText = null;
+        if (task.getDueDateMillis() != Task.NO_DATE) {
+            synchronized (dateFormat) {
+                dueDateText = dateFormat.format(new Date(task.getDueDateMillis()));
+            }
+        }
+
+        int typeIcon;
+        switch (task.getTaskTypeCode()) {
+            case Task.TYPE_CODE_REMINDER:
+                typeIcon = R.drawable.ic_task_type_reminder;
+                break;
+            case Task.TYPE_CODE_UPDATE:
+                typeIcon = R.drawable.ic_task_type_update;
+                break;
+            case Task.TYPE_CODE_TASK:
+            default:
+                typeIcon = R.drawable.ic_task_type_task;
+                break;
+        }
+
+        int priorityIcon = 0;
+        switch (task.getPriorityCode()) {
+            case Task.PRIORITY_CODE_HIGH:
+                priorityIcon = R.drawable.ic_priority_high;
+                break;
+            case Task.PRIORITY_CODE_LOW:
+                priorityIcon = R.drawable.ic_priority_low;
+                break;
+            default: // Normal priority has no icon
+                break;
+        }
+
+        int creatorLabel;
+        if (!task.isSynced()) {
+            creatorLabel = R.string.task_creator_label_local;
+        } else {
+            creatorLabel = isCreator ? R.string.task_creator_label_you : R.string.task_creator_label_partner;
+        }
+
+        String title = task.getTitle() != null ? task.getTitle() : "";
+        return new TaskItemUiModel(task,
+                metrics,
+                layOut(title, metrics != null ? metrics.title : null),
+                layOut(description, metrics != null ? metrics.description : null),
+                description.isEmpty() ? View.GONE : View.VISIBLE,
+                dueDateText,
+                dueDateText != null ? View.VISIBLE : View.GONE,
+                creatorLabel,
+                isCreator ? myTaskColor : partnerTaskColor,
+                typeIcon,
+                priorityIcon,
+                priorityIcon != 0 ? View.VISIBLE : View.GONE,
+                task.isSynced() ? 1.0f : 0.7f,
+                // Using INVISIBLE keeps the layout aligned
+                showCheckbox ? View.VISIBLE : View.INVISIBLE,
+                canComplete,
+                canEdit,
+                canDelete);
+    }
+}
@@ -0,0 +1,63 @@
+package com.pranav.synctask.adapters;
+
+import android.view.View;
+import com.pranav.synctask.models.Task;
+
+/**
+ * Everything a task row shows, resolved ahead of binding by {@link TaskItemMapper}.
+ * Binding copies these fields into views and does no other work.
+ */
+public final class TaskItemUiModel {
+    final CharSequence title;
+    final CharSequence description;
+    final int descriptionVisibility;
+    final String dueDateText;
+    final int dueDateVisibility;
+    final int creatorLabelRes;
+    final int sideBarColor;
+    final int taskTypeIconRes;
+    final int priorityIconRes;
+    final int priorityVisibility;
+    final float alpha;
+    final boolean checked;
+    final int checkboxVisibility;
+    final boolean canComplete;
+    final boolean canEdit;
+    final boolean canDelete;
+    final int deleteVisibility;
+    // Task fields that are changed in place; a model built before such a change is stale
+    final byte statusCode;
+    final boolean synced;
+    // Metrics the text was precomputed with, or null for plain text
+    final TaskItemMapper.TextMetrics textMetrics;
+
+    TaskItemUiModel(Task task, TaskItemMapper.TextMetrics textMetrics, CharSequence title,
+                    CharSequence description, int descriptionVisibility, String dueDateText, int dueDateVisibility, int creatorLabelRes, int sideBarColor,
+                    int taskTypeIconRes, int priorityIconRes, int priorityVisibility, float alpha,
+                    int checkboxVisibility, boolean canComplete, boolean canEdit, boolean canDelete) {
+        this.textMetrics = textMetrics;
+        this.title = title;
+        this.description = description;
+        this.descriptionVisibility = descriptionVisibility;
+        this.dueDateText = dueDateText;
+        this.dueDateVisibility = dueDateVisibility;
+        this.creatorLabelRes = creatorLabelRes;
+        this.sideBarColor = sideBarColor;
+        this.taskTypeIconRes = taskTypeIconRes;
+        this.priorityIconRes = priorityIconRes;
+        this.priorityVisibility = priorityVisibility;
+        this.alpha = alpha;
+        this.checked = task.isCompleted();
+        this.checkboxVisibility = checkboxVisibility;
+        this.canComplete = canComplete;
+        this.canEdit = canEdit;
+        this.canDelete = canDelete;
+        this.deleteVisibility = canDelete ? View.VISIBLE : View.GONE;
+        this.statusCode = task.getStatusCode();
+        this.synced = task.isSynced();
+    }
+
+    boolean isCurrentFor(Task task) {
+        return statusCode == task.getStatusCode() && synced == task.isSynced();
+    }
+}
@@ -0,0 +1,97 @@
+package com.pranav.synctask.adapters;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.view.View;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+
+/**
+ * Row pool shared by the task lists of all tabs, so switching tabs reuses rows instead of
+ * inflating item_task again. {@link #prewarm} fills it ahead of the first bind.
+ */
+public class TaskViewPool extends RecyclerView.RecycledViewPool {
+    private static final String TAG = "TaskViewPool";
+
+    private static final int VIEW_TYPE = 0;
+    // Used until a row has been measured
+    private static final int DEFAULT_VISIBLE_ROWS = 8;
+
+    private int visibleRows = DEFAULT_VISIBLE_ROWS;
+    // Rows a list had to inflate itself because the pool was empty; with a warm pool the
+    // first tab should not add any
+    private int listInflations;
+
+    public TaskViewPool() {
+        setCapacity();
+    }
+
+    // Room for the rows of one screen leaving while the next tab's fill in
+    private void setCapacity() {
+        setMaxRecycledViews(VIEW_TYPE, visibleRows * 2);
+    }
+
+    /**
+     * Inflates one screen of rows on the main thread while it is idle, one row per idle pass,
+     * so startup frames are not delayed. The first row's height decides how many fit.
+     */
+    public void prewarm(Activity activity, TaskItemMapper itemMapper) {
+        // Parent for inflation only, so rows get RecyclerView layout params
+        RecyclerView parent = new RecyclerView(activity);
+        parent.setLayoutManager(new LinearLayoutManager(activity));
+        TaskAdapter adapter = new TaskAdapter(activity, new ArrayList<>(), itemMapper);
+        DisplayMetrics metrics = activity.getResources().getDisplayMetrics();
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            private int created;
+
+            @Override
+            public boolean queueIdle() {
+                if (activity.isFinishing() || activity.isDestroyed()) return false;
+                TaskAdapter.TaskViewHolder holder = adapter.createViewHolder(parent, VIEW_TYPE);
+                if (created == 0) {
+                    holder.itemView.measure(
+                            View.MeasureSpec.makeMeasureSpec(metrics.widthPixels, View.MeasureSpec.EXACTLY),
+                            View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+                    int rowHeight = holder.itemView.getMeasuredHeight();
+                    if (rowHeight > 0) {
+                        visibleRows = metrics.heightPixels / rowHeight + 1;
+                        setCapacity();
+                    }
+                }
+                putRecycledView(holder);
+                created++;
+                // Stop once a screen is ready or the lists have started taking rows
+                return created < visibleRows && getRecycledViewCount(VIEW_TYPE) == created;
+            }
+        });
+    }
+
+    @Override
+    public RecyclerView.ViewHolder getRecycledView(int viewType) {
+        RecyclerView.ViewHolder holder = super.getRecycledView(viewType);
+        if (holder == null) {
+            // The asking list calls onCreateViewHolder next
+            listInflations++;
+            Log.d(TAG, "Pool empty, list inflates row " + listInflations);
+        }
+        return holder;
+    }
+
+    /**
+     * Gives a tab's list its adapter and then the shared pool, with prefetching on. The
+     * adapter has to come first: a pool with no attached adapter clears itself when the
+     * list's adapter is set, which would throw the prewarmed rows away.
+     */
+    public void attach(RecyclerView recyclerView, LinearLayoutManager layoutManager, TaskAdapter adapter) {
+        layoutManager.setItemPrefetchEnabled(true);
+        // Rows go back to the pool when the tab's view is destroyed
+        layoutManager.setRecycleChildrenOnDetach(true);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(adapter);
+        recyclerView.setRecycledViewPool(this);
+    }
+}
@@ -0,0 +1,21 @@
+package com.pranav.synctask.data;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.pranav.synctask.models.Task;
+import java.util.List;
+
+/** One page of a space's archived tasks, and where the next one starts. */
+public final class ArchivePage {
+    public final List<Task> tasks;
+    // Last document of this page, null if it was the last page
+    final DocumentSnapshot cursor;
+
+    ArchivePage(List<Task> tasks, DocumentSnapshot cursor) {
+        this.tasks = tasks;
+        this.cursor = cursor;
+    }
+
+    public boolean hasMore() {
+        return cursor != null;
+    }
+}
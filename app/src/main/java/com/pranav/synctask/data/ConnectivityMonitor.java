@@ -0,0 +1,76 @@
+package com.pranav.synctask.data;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.pranav.synctask.utils.NetworkUtils;
+
+/**
+ * Process-wide view of the default network, registered once for the whole app.
+ * Callbacks for the same state are folded into one transition.
+ */
+public class ConnectivityMonitor {
+    private static volatile ConnectivityMonitor instance;
+
+    private final Context appContext;
+    private final MutableLiveData<Boolean> onlineState;
+    private volatile boolean online;
+    // Default network we are on; only touched on the callback thread
+    private Network currentNetwork;
+
+    private ConnectivityMonitor(Context context) {
+        appContext = context.getApplicationContext();
+        online = NetworkUtils.isNetworkAvailable(appContext);
+        onlineState = new MutableLiveData<>(online);
+        ConnectivityManager cm = (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        cm.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                currentNetwork = network;
+                setOnline(true);
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                // A switch to another network reports the new one before losing the old
+                if (network.equals(currentNetwork)) {
+                    currentNetwork = null;
+                    setOnline(false);
+                }
+            }
+        });
+    }
+
+    public static ConnectivityMonitor getInstance(Context context) {
+        if (instance == null) {
+            synchronized (ConnectivityMonitor.class) {
+                if (instance == null) {
+                    instance = new ConnectivityMonitor(context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Returns whether the state changed
+    private boolean setOnline(boolean isOnline) {
+        if (online == isOnline) {
+            return false;
+        }
+        online = isOnline;
+        onlineState.postValue(isOnline);
+        return true;
+    }
+
+    /** Last known state, cheap enough to check before every write. */
+    public boolean isOnline() {
+        return online;
+    }
+
+    public LiveData<Boolean> getOnlineState() {
+        return onlineState;
+    }
+}
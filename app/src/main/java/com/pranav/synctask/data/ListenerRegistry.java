@@ -0,0 +1,96 @@
+package com.pranav.synctask.data;
+
+import com.google.firebase.firestore.ListenerRegistration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reference-counted snapshot listeners, keyed by query.
+ * The first subscriber attaches the listener, later ones share it. When the last one
+ * leaves, the listener lingers for a grace period so a rotation, back-and-forth navigation
+ * or a quick resume reuses it instead of paying for a fresh query. All calls must be made
+ * on the executor passed in, which is also used to schedule the delayed teardown.
+ */
+public class ListenerRegistry {
+    public static final long DEFAULT_LINGER_MS = 30_000;
+
+    public interface Factory {
+        ListenerRegistration attach();
+    }
+
+    private static final class Entry {
+        ListenerRegistration registration;
+        int refCount;
+        ScheduledFuture<?> pendingDetach;
+    }
+
+    private final ScheduledExecutorService executor;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long lingerMillis = DEFAULT_LINGER_MS;
+
+    public ListenerRegistry(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public void setLingerMillis(long lingerMillis) {
+        this.lingerMillis = Math.max(0, lingerMillis);
+    }
+
+    /** Adds a subscriber, attaching the listener if none is live. Returns true if it was attached now. */
+    public boolean acquire(String key, Factory factory) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(key, entry);
+        }
+        entry.refCount++;
+        if (entry.pendingDetach != null) {
+            entry.pendingDetach.cancel(false);
+            entry.pendingDetach = null;
+        }
+        if (entry.registration == null) {
+            entry.registration = factory.attach();
+            return true;
+        }
+        return false;
+    }
+
+    /** Removes a subscriber; the listener is detached once it has had no subscribers for the linger window. */
+    public void release(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.refCount == 0) return;
+        entry.refCount--;
+        if (entry.refCount == 0) {
+            entry.pendingDetach = executor.schedule(() -> {
+                if (entries.get(key) == entry && entry.refCount == 0) {
+                    detach(key);
+                }
+            }, lingerMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isAttached(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.registration != null;
+    }
+
+    public int getRefCount(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.refCount : 0;
+    }
+
+    /** Detaches the listener immediately, regardless of subscribers. */
+    public void detach(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) return;
+        if (entry.pendingDetach != null) {
+            entry.pendingDetach.cancel(false);
+        }
+        if (entry.registration != null) {
+            entry.registration.remove();
+        }
+    }
+}
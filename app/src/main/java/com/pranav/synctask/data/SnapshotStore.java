@@ -0,0 +1,140 @@
+package com.pranav.synctask.data;
+
+import android.content.Context;
+import android.util.Log;
+import com.google.firebase.auth.FirebaseAuth;
+import com.pranav.synctask.models.SnapshotCodec;
+import com.pranav.synctask.models.Space;
+import com.pranav.synctask.models.Task;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Files holding the spaces list and each space's task list as last shown, see
+ * {@link SnapshotCodec}. Reads are synchronous and memory-mapped so they can feed the first
+ * frame; writes go through a background thread and replace the file atomically.
+ * Each account has its own directory, named by UID, and a write queued for an account
+ * that has signed out since is dropped. Initialized once by the Application.
+ */
+public class SnapshotStore {
+    private static final String TAG = "SnapshotStore";
+    private static final String DIRECTORY = "snapshots";
+    private static final String SPACES_FILE = "spaces";
+    private static final String TASKS_FILE_PREFIX = "tasks_";
+    private static volatile SnapshotStore instance;
+
+    // Holds one directory per account
+    private final File root;
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor();
+
+    private SnapshotStore(Context context) {
+        root = new File(context.getApplicationContext().getFilesDir(), DIRECTORY);
+    }
+
+    public static void init(Context context) {
+        if (instance == null) {
+            synchronized (SnapshotStore.class) {
+                if (instance == null) {
+                    instance = new SnapshotStore(context);
+                }
+            }
+        }
+    }
+
+    public static SnapshotStore getInstance() {
+        return instance;
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    public List<Task> readTasks(String spaceId) {
+        MappedByteBuffer buffer = map(TASKS_FILE_PREFIX + spaceId);
+        return buffer != null ? SnapshotCodec.readTasks(buffer) : null;
+    }
+
+    // The list must not change afterwards; engine snapshots never do
+    public void saveTasks(String spaceId, List<Task> tasks) {
+        save(TASKS_FILE_PREFIX + spaceId, out -> SnapshotCodec.writeTasks(out, tasks));
+    }
+
+    public List<Space> readSpaces() {
+        MappedByteBuffer buffer = map(SPACES_FILE);
+        return buffer != null ? SnapshotCodec.readSpaces(buffer) : null;
+    }
+
+    public void saveSpaces(List<Space> spaces) {
+        save(SPACES_FILE, out -> SnapshotCodec.writeSpaces(out, spaces));
+    }
+
+    // Deletes every account's files; call after signing out, so later writes are dropped
+    public void clear() {
+        writeExecutor.execute(() -> delete(root));
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "Could not delete " + file.getName());
+        }
+    }
+
+    private static String currentUid() {
+        return FirebaseAuth.getInstance().getUid();
+    }
+
+    // Nothing is stored or read while signed out
+    private MappedByteBuffer map(String name) {
+        String uid = currentUid();
+        if (uid == null) return null;
+        File file = new File(new File(root, uid), name);
+        if (!file.isFile()) return null;
+        try (FileInputStream in = new FileInputStream(file); FileChannel channel = in.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read " + file.getName(), e);
+            return null;
+        }
+    }
+
+    private void save(String name, Writer writer) {
+        String uid = currentUid();
+        if (uid == null) return;
+        writeExecutor.execute(() -> {
+            // A listener of the previous account can still be saving after sign-out
+            if (!uid.equals(currentUid())) return;
+            File directory = new File(root, uid);
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                Log.w(TAG, "Could not create " + directory);
+                return;
+            }
+            File temp = new File(directory, name + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                writer.write(out);
+            } catch (IOException e) {
+                Log.w(TAG, "Could not write " + name, e);
+                return;
+            }
+            // A reader sees either the old file or the new one, never a partial write
+            if (!temp.renameTo(new File(directory, name))) {
+                Log.w(TAG, "Could not replace " + name);
+            }
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.pranav.synctask.data;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of per-space task sets, keyed by spaceId.
+ * Returning to a recently viewed space reuses its merge engine, so the list can be shown
+ * straight from memory while the listener catches up. Not thread-safe: it is owned by the
+ * repository's pipeline thread. Stats are published through {@link #getStats()}.
+ */
+public class SpaceTaskCache {
+    public static final int DEFAULT_MAX_SPACES = 4;
+
+    public static final class Stats {
+        public final int size;
+        public final int maxSize;
+        public final int hits;
+        public final int misses;
+        public final int evictions;
+
+        Stats(int size, int maxSize, int hits, int misses, int evictions) {
+            this.size = size;
+            this.maxSize = maxSize;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+    }
+
+    public interface EvictionListener {
+        void onEvicted(String spaceId);
+    }
+
+    private final LinkedHashMap<String, TaskMergeEngine> engines = new LinkedHashMap<>(16, 0.75f, true);
+    private final MutableLiveData<Stats> stats = new MutableLiveData<>();
+    private EvictionListener evictionListener;
+    private int maxSize;
+    private int hits;
+    private int misses;
+    private int evictions;
+
+    public SpaceTaskCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    public LiveData<Stats> getStats() {
+        return stats;
+    }
+
+    /** Returns the cached engine for the space and marks it most recently used, or null. */
+    public TaskMergeEngine get(String spaceId) {
+        TaskMergeEngine engine = engines.get(spaceId);
+        if (engine != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        publish();
+        return engine;
+    }
+
+    /** Returns the cached engine without touching LRU order or stats. */
+    public TaskMergeEngine peek(String spaceId) {
+        for (Map.Entry<String, TaskMergeEngine> entry : engines.entrySet()) {
+            if (entry.getKey().equals(spaceId)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public void put(String spaceId, TaskMergeEngine engine) {
+        engines.put(spaceId, engine);
+        trim();
+        publish();
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        trim();
+        publish();
+    }
+
+    public void remove(String spaceId) {
+        if (engines.remove(spaceId) != null) {
+            publish();
+        }
+    }
+
+    // The most recently used space is never evicted, so the visible space always stays cached
+    private void trim() {
+        Iterator<String> eldest = engines.keySet().iterator();
+        while (engines.size() > maxSize && eldest.hasNext()) {
+            String spaceId = eldest.next();
+            eldest.remove();
+            evictions++;
+            if (evictionListener != null) {
+                evictionListener.onEvicted(spaceId);
+            }
+        }
+    }
+
+    private void publish() {
+        stats.postValue(new Stats(engines.size(), maxSize, hits, misses, evictions));
+    }
+}
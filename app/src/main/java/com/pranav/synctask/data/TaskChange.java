@@ -0,0 +1,19 @@
+package com.pranav.synctask.data;
+
+import com.pranav.synctask.models.Task;
+
+/**
+ * One visible task that changed between two emissions, identified by its merge key.
+ * {@code before} is null for an insert and {@code after} is null for a removal; with both
+ * set the task was modified and may have moved. The two may be the same instance if the
+ * task was edited in place.
+ */
+public final class TaskChange {
+    public final Task before;
+    public final Task after;
+
+    TaskChange(Task before, Task after) {
+        this.before = before;
+        this.after = after;
+    }
+}
@@ -0,0 +1,107 @@
+package com.pranav.synctask.data;
+
+import com.pranav.synctask.models.Task;
+import com.pranav.synctask.utils.DateUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index over one emission of a space's tasks.
+ * Tasks are bucketed by the local epoch day and month of their due date and by task type,
+ * once per emission on the repository's pipeline thread, so each tab reads its slice
+ * without any per-task date arithmetic. Every bucket keeps the display order of the source list.
+ * Each index is numbered and carries the changes from the index before it, so a list that
+ * shows the previous version can be patched instead of rebuilt.
+ */
+public final class TaskIndex {
+    public static final TaskIndex EMPTY = build(Collections.emptyList(), null, null);
+
+    private final long version;
+    // Changes since version - 1, or null if they are unknown
+    private final List<TaskChange> changes;
+    private final List<Task> all;
+    private final Map<Long, List<Task>> byDueDay;
+    private final Map<Integer, List<Task>> byDueMonth;
+    private final Map<String, List<Task>> byType;
+
+    private TaskIndex(long version, List<TaskChange> changes, List<Task> all, Map<Long, List<Task>> byDueDay,
+                      Map<Integer, List<Task>> byDueMonth, Map<String, List<Task>> byType) {
+        this.version = version;
+        this.changes = changes;
+        this.all = all;
+        this.byDueDay = byDueDay;
+        this.byDueMonth = byDueMonth;
+        this.byType = byType;
+    }
+
+    /**
+     * Indexes the tasks as the successor of {@code previous}. Pass the changes made since
+     * {@code previous}, or null if they are unknown, e.g. after switching spaces.
+     */
+    public static TaskIndex build(List<Task> tasks, TaskIndex previous, List<TaskChange> changes) {
+        Map<Long, List<Task>> byDueDay = new HashMap<>();
+        Map<Integer, List<Task>> byDueMonth = new HashMap<>();
+        Map<String, List<Task>> byType = new HashMap<>();
+        for (Task task : tasks) {
+            long dueDate = task.getDueDateMillis();
+            if (dueDate != Task.NO_DATE) {
+                // Keyed like the stored dueDay and dueMonth, so the tabs agree with their queries
+                addTo(byDueDay, DateUtils.dueDay(dueDate), task);
+                addTo(byDueMonth, DateUtils.dueMonth(dueDate), task);
+            }
+            String taskType = task.getTaskType();
+            if (taskType != null) {
+                addTo(byType, taskType, task);
+            }
+        }
+        long version = previous != null ? previous.version + 1 : 0;
+        return new TaskIndex(version, changes, tasks, byDueDay, byDueMonth, byType);
+    }
+
+    private static <K> void addTo(Map<K, List<Task>> buckets, K key, Task task) {
+        List<Task> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.put(key, bucket);
+        }
+        bucket.add(task);
+    }
+
+    private static List<Task> slice(List<Task> bucket) {
+        return bucket != null ? Collections.unmodifiableList(bucket) : Collections.emptyList();
+    }
+
+    /** Whether {@link #getChanges()} turns {@code previous} into this index. */
+    public boolean follows(TaskIndex previous) {
+        return changes != null && previous != null && previous.version == version - 1;
+    }
+
+    public List<TaskChange> getChanges() {
+        return changes != null ? Collections.unmodifiableList(changes) : null;
+    }
+
+    public List<Task> getAll() {
+        return all;
+    }
+
+    /** Tasks due on the given local day, see {@link DateUtils#todayEpochDay()}. */
+    public List<Task> getDueOn(long epochDay) {
+        return slice(byDueDay.get(epochDay));
+    }
+
+    /** Tasks due in the given month, see {@link DateUtils#currentMonthKey()}. */
+    public List<Task> getDueInMonth(int monthKey) {
+        return slice(byDueMonth.get(monthKey));
+    }
+
+    public List<Task> getOfType(String taskType) {
+        return slice(byType.get(taskType));
+    }
+
+    public int size() {
+        return all.size();
+    }
+}
@@ -0,0 +1,180 @@
+package com.pranav.synctask.data;
+
+import com.pranav.synctask.models.Task;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the merged, display-ordered task list of one space.
+ * Firestore tasks are indexed by document ID. The visible list stays sorted on each task's
+ * {@link Task#getSortKey() sort key}, the same key the listener orders by on the server, so
+ * every change is a binary-search insert or remove with one string comparison per step
+ * instead of a full re-sort. Visible tasks are also kept in a {@link TrigramIndex} for
+ * search, and every visible change is recorded until the next {@link #drainChanges()}.
+ */
+public class TaskMergeEngine {
+
+    private static final class Entry {
+        final String key;
+        final Task task;
+        // Captured on insert, so a task edited in place can still be found and removed
+        final String sortKey;
+
+        Entry(String key, Task task) {
+            this.key = key;
+            this.task = task;
+            this.sortKey = task.getSortKey();
+        }
+    }
+
+    // Highest priority first, then newest first; the ID at the end of the key keeps the order total
+    private static final Comparator<Entry> DISPLAY_ORDER = (e1, e2) -> e1.sortKey.compareTo(e2.sortKey);
+
+    /** The same order over tasks, for lists built from {@link #snapshot()}. */
+    public static final Comparator<Task> DISPLAY_ORDER_TASKS = (t1, t2) -> t1.getSortKey().compareTo(t2.getSortKey());
+
+    private static final class PendingChange {
+        final Task before;
+        Task after;
+
+        PendingChange(Task before) {
+            this.before = before;
+        }
+    }
+
+    private final Map<String, Entry> remoteById = new HashMap<>();
+    private final ArrayList<Entry> sorted = new ArrayList<>();
+    private final TrigramIndex searchIndex = new TrigramIndex();
+    // Visible changes since the last drain, by entry key
+    private final Map<String, PendingChange> pendingChanges = new LinkedHashMap<>();
+    private boolean changesLost;
+    private List<Task> snapshot = Collections.emptyList();
+    private boolean dirty;
+
+    public void upsertRemote(Task task) {
+        removeRemote(task.getId());
+        Entry entry = new Entry(task.getId(), task);
+        remoteById.put(entry.key, entry);
+        insertSorted(entry);
+    }
+
+    public void removeRemote(String id) {
+        Entry existing = remoteById.remove(id);
+        if (existing == null) return;
+        removeSorted(existing);
+    }
+
+    /** Drops Firestore tasks whose IDs are not in the given set, e.g. ones deleted while nobody listened. */
+    public void retainRemote(Set<String> ids) {
+        List<String> stale = new ArrayList<>();
+        for (String id : remoteById.keySet()) {
+            if (!ids.contains(id)) {
+                stale.add(id);
+            }
+        }
+        for (String id : stale) {
+            removeRemote(id);
+        }
+    }
+
+    public void clearRemote() {
+        for (Entry entry : remoteById.values()) {
+            removeSorted(entry);
+        }
+        remoteById.clear();
+    }
+
+    /** Returns the last known version of a Firestore task, or null if it is not in this space. */
+    public Task getRemote(String id) {
+        Entry entry = remoteById.get(id);
+        return entry != null ? entry.task : null;
+    }
+
+    public void clear() {
+        remoteById.clear();
+        sorted.clear();
+        searchIndex.clear();
+        pendingChanges.clear();
+        changesLost = true;
+        dirty = true;
+    }
+
+    public int size() {
+        return sorted.size();
+    }
+
+    /** Returns the visible tasks whose title or description contains the query. */
+    public Set<Task> search(String query) {
+        return searchIndex.search(query);
+    }
+
+    /**
+     * Returns the changes to the visible list since the previous call, in the order they
+     * were first made, or null if they were not tracked and the list must be taken whole.
+     */
+    public List<TaskChange> drainChanges() {
+        if (changesLost) {
+            changesLost = false;
+            pendingChanges.clear();
+            return null;
+        }
+        List<TaskChange> changes = new ArrayList<>(pendingChanges.size());
+        for (PendingChange change : pendingChanges.values()) {
+            // Added and removed again since the last drain
+            if (change.before != null || change.after != null) {
+                changes.add(new TaskChange(change.before, change.after));
+            }
+        }
+        pendingChanges.clear();
+        return changes;
+    }
+
+    /** Returns the merged list in display order; rebuilt only after a change. */
+    public List<Task> snapshot() {
+        if (dirty) {
+            List<Task> tasks = new ArrayList<>(sorted.size());
+            for (Entry entry : sorted) {
+                tasks.add(entry.task);
+            }
+            snapshot = Collections.unmodifiableList(tasks);
+            dirty = false;
+        }
+        return snapshot;
+    }
+
+    private void insertSorted(Entry entry) {
+        int index = Collections.binarySearch(sorted, entry, DISPLAY_ORDER);
+        if (index < 0) {
+            sorted.add(-index - 1, entry);
+            searchIndex.add(entry.task);
+            PendingChange change = pendingChanges.get(entry.key);
+            if (change == null) {
+                change = new PendingChange(null);
+                pendingChanges.put(entry.key, change);
+            }
+            change.after = entry.task;
+            dirty = true;
+        }
+    }
+
+    private void removeSorted(Entry entry) {
+        int index = Collections.binarySearch(sorted, entry, DISPLAY_ORDER);
+        if (index >= 0) {
+            sorted.remove(index);
+            searchIndex.remove(entry.task);
+            PendingChange change = pendingChanges.get(entry.key);
+            if (change == null) {
+                pendingChanges.put(entry.key, new PendingChange(entry.task));
+            } else {
+                change.after = null;
+            }
+            dirty = true;
+        }
+    }
+}
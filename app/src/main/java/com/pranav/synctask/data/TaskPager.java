@@ -0,0 +1,346 @@
+package com.pranav.synctask.data;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.pranav.synctask.models.Task;
+import com.pranav.synctask.utils.FirebaseHelper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Listens to a space's tasks a page at a time instead of with one unbounded query.
+ * Every page except the last covers a fixed range of the listener order, from just after
+ * the previous page's last document up to its own, so inserts and deletes land in exactly
+ * one page. The last page is a limit() query; {@link #loadMore()} pins it at its current
+ * end and opens the next one after it. {@link #showWindow} detaches pages away from what is
+ * on screen, dropping their tasks, and re-attaches them when they come back into view.
+ * <p>
+ * The engine therefore only holds the attached pages, and search works on what it holds:
+ * a task on a detached page or on one not loaded yet is not found. While a search runs,
+ * {@link #setKeepAllPages} re-attaches every loaded page and stops detaching; pages not
+ * loaded yet still need {@link #loadMore()}. Counts over the whole space come from the
+ * server instead, see {@link FirebaseHelper#countTasks}.
+ * <p>
+ * Nothing is listened to until a tab is shown. A tab showing a {@link TaskSlice} (Today,
+ * This Month) gets a listener for just that slice, which stays attached alongside the
+ * pages; the pages only start once a tab showing the whole space is opened.
+ * Pipeline thread only.
+ */
+class TaskPager implements ListenerRegistration {
+    // Pages kept attached on either side of the visible ones
+    static final int WINDOW_MARGIN = 1;
+
+    interface Listener {
+        void onTasksChanged();
+        void onError(Exception e);
+    }
+
+    // A listener's state; a task stays in the engine while any range holds it
+    private static class Range {
+        ListenerRegistration registration;
+        // Bumped on every attach, so callbacks queued for an old listener are ignored
+        int generation;
+        boolean awaitingFirstSnapshot;
+        final Set<String> ids = new HashSet<>();
+    }
+
+    private static final class Page extends Range {
+        // Last document of the range, null for the open last page
+        DocumentSnapshot end;
+        DocumentSnapshot last;
+        int size;
+    }
+
+    private static final class SliceRange extends Range {
+        final TaskSlice slice;
+
+        SliceRange(TaskSlice slice) {
+            this.slice = slice;
+        }
+    }
+
+    private final FirebaseHelper firebaseHelper;
+    private final String spaceId;
+    private final int pageSize;
+    private final Executor executor;
+    private final TaskMergeEngine engine;
+    private final Listener listener;
+    private final List<Page> pages = new ArrayList<>();
+    // At most one slice per field, e.g. today's and this month's
+    private final Map<String, SliceRange> slices = new HashMap<>();
+    // Slice of the tab being shown, null for the whole space
+    private TaskSlice shownSlice;
+    // Set while a search runs, so it sees every page loaded so far
+    private boolean keepAllPages;
+    private boolean reconcilePending = true;
+    private boolean removed;
+
+    TaskPager(FirebaseHelper firebaseHelper, String spaceId, int pageSize, Executor executor,
+              TaskMergeEngine engine, Listener listener) {
+        this.firebaseHelper = firebaseHelper;
+        this.spaceId = spaceId;
+        this.pageSize = pageSize;
+        this.executor = executor;
+        this.engine = engine;
+        this.listener = listener;
+    }
+
+    boolean isRemoved() {
+        return removed;
+    }
+
+    /**
+     * Listens to what a tab shows: the given slice, or the pages of the whole space if null.
+     * A slice replaces the one of the same field, e.g. yesterday's after midnight.
+     */
+    void showTab(TaskSlice slice) {
+        if (removed) return;
+        shownSlice = slice;
+        if (slice == null) {
+            if (pages.isEmpty()) {
+                pages.add(new Page());
+                attach(0);
+            }
+            return;
+        }
+        SliceRange current = slices.get(slice.field);
+        if (current != null && current.slice.equals(slice)) return;
+        if (current != null) {
+            slices.remove(slice.field);
+            detach(current);
+            listener.onTasksChanged();
+        }
+        SliceRange range = new SliceRange(slice);
+        slices.put(slice.field, range);
+        attach(range);
+    }
+
+    /** Opens the next page if the last one is full and listening. */
+    void loadMore() {
+        if (removed || shownSlice != null || pages.isEmpty()) return;
+        int lastIndex = pages.size() - 1;
+        Page last = pages.get(lastIndex);
+        if (last.registration == null || last.awaitingFirstSnapshot || last.size < pageSize) {
+            return;
+        }
+        // Pin the open page at its current end, then continue after it
+        last.end = last.last;
+        attach(lastIndex);
+        pages.add(new Page());
+        attach(lastIndex + 1);
+    }
+
+    /** Re-attaches every detached page and keeps them all until called with false. */
+    void setKeepAllPages(boolean keep) {
+        if (removed || keepAllPages == keep) return;
+        keepAllPages = keep;
+        // Dropping back to a window waits for the next showWindow()
+        if (!keep) return;
+        for (int i = 0; i < pages.size(); i++) {
+            if (pages.get(i).registration == null) {
+                attach(i);
+            }
+        }
+    }
+
+    /**
+     * Keeps the pages holding the visible tasks attached, plus a margin. {@code toEnd} also
+     * keeps everything after them, for when the list is scrolled to its end.
+     */
+    void showWindow(List<Task> visible, boolean toEnd) {
+        // A slice tab's rows say nothing about which pages are in view
+        if (removed || shownSlice != null || visible.isEmpty()) return;
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (Task task : visible) {
+            int page = pageOf(task.getId());
+            if (page >= 0) {
+                first = Math.min(first, page);
+                last = Math.max(last, page);
+            }
+        }
+        if (last < 0) return;
+        int from = Math.max(0, first - WINDOW_MARGIN);
+        int to = toEnd ? pages.size() - 1 : Math.min(pages.size() - 1, last + WINDOW_MARGIN);
+        boolean changed = false;
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            boolean keep = keepAllPages || (i >= from && i <= to);
+            if (keep && page.registration == null) {
+                attach(i);
+            } else if (!keep && page.registration != null) {
+                detach(page);
+                changed = true;
+            }
+        }
+        if (changed) {
+            listener.onTasksChanged();
+        }
+    }
+
+    @Override
+    public void remove() {
+        removed = true;
+        for (Page page : pages) {
+            if (page.registration != null) {
+                page.registration.remove();
+                page.registration = null;
+            }
+        }
+        for (SliceRange range : slices.values()) {
+            range.registration.remove();
+            range.registration = null;
+        }
+    }
+
+    private int pageOf(String id) {
+        if (id == null) return -1;
+        for (int i = 0; i < pages.size(); i++) {
+            if (pages.get(i).ids.contains(id)) return i;
+        }
+        return -1;
+    }
+
+    private boolean ownedByAnotherRange(Range range, String id) {
+        for (Page other : pages) {
+            if (other != range && other.ids.contains(id)) return true;
+        }
+        for (SliceRange other : slices.values()) {
+            if (other != range && other.ids.contains(id)) return true;
+        }
+        return false;
+    }
+
+    private void attach(int index) {
+        Page page = pages.get(index);
+        if (page.registration != null) {
+            page.registration.remove();
+        }
+        int generation = ++page.generation;
+        page.awaitingFirstSnapshot = true;
+        DocumentSnapshot startAfter = index > 0 ? pages.get(index - 1).end : null;
+        page.registration = firebaseHelper.getTaskPage(spaceId, startAfter, page.end, pageSize, executor,
+                new FirebaseHelper.TaskPageCallback() {
+                    @Override
+                    public void onPage(List<Task> upserted, List<String> removedIds, DocumentSnapshot last, int size) {
+                        if (removed || generation != page.generation) return;
+                        onPageChanges(page, upserted, removedIds, last, size);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        if (removed || generation != page.generation) return;
+                        listener.onError(e);
+                    }
+                });
+    }
+
+    private void attach(SliceRange range) {
+        int generation = ++range.generation;
+        range.awaitingFirstSnapshot = true;
+        range.registration = firebaseHelper.getTasksDue(spaceId, range.slice.field, range.slice.value, executor,
+                new FirebaseHelper.TaskChangesCallback() {
+                    @Override
+                    public void onChanges(List<Task> upserted, List<String> removedIds) {
+                        if (removed || generation != range.generation) return;
+                        onSliceChanges(range, upserted, removedIds);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        if (removed || generation != range.generation) return;
+                        listener.onError(e);
+                    }
+                });
+    }
+
+    // Stops listening to the range and drops its tasks from the engine
+    private void detach(Range range) {
+        range.registration.remove();
+        range.registration = null;
+        range.generation++;
+        for (String id : range.ids) {
+            if (!ownedByAnotherRange(range, id)) {
+                engine.removeRemote(id);
+            }
+        }
+        range.ids.clear();
+    }
+
+    private void onPageChanges(Page page, List<Task> upserted, List<String> removedIds,
+                               DocumentSnapshot last, int size) {
+        if (page.awaitingFirstSnapshot) {
+            // A (re)attached listener reports its whole range as added; anything the page
+            // held before that is missing now was deleted while it was not listening
+            Set<String> liveIds = new HashSet<>();
+            for (Task task : upserted) {
+                liveIds.add(task.getId());
+            }
+            for (String id : page.ids) {
+                if (!liveIds.contains(id) && !ownedByAnotherRange(page, id)) {
+                    engine.removeRemote(id);
+                }
+            }
+            page.ids.clear();
+            page.awaitingFirstSnapshot = false;
+            if (reconcilePending) {
+                // Tasks cached from before this listener that the first page no longer has
+                // are dropped, the same as for a single listener; slices vouch for their own
+                for (SliceRange range : slices.values()) {
+                    liveIds.addAll(range.ids);
+                }
+                engine.retainRemote(liveIds);
+                reconcilePending = false;
+            }
+        }
+        for (String id : removedIds) {
+            page.ids.remove(id);
+            // Moved to a neighbouring page rather than deleted if another page still has it
+            if (!ownedByAnotherRange(page, id)) {
+                engine.removeRemote(id);
+            }
+        }
+        for (Task task : upserted) {
+            page.ids.add(task.getId());
+            engine.upsertRemote(task);
+        }
+        page.last = last;
+        page.size = size;
+        listener.onTasksChanged();
+    }
+
+    private void onSliceChanges(SliceRange range, List<Task> upserted, List<String> removedIds) {
+        if (range.awaitingFirstSnapshot) {
+            // Cached tasks in the slice that its first snapshot lacks were deleted or moved
+            // out of it meanwhile, unless a page still has them
+            Set<String> liveIds = new HashSet<>();
+            for (Task task : upserted) {
+                liveIds.add(task.getId());
+            }
+            for (Task task : engine.snapshot()) {
+                String id = task.getId();
+                if (id != null && !liveIds.contains(id) && engine.getRemote(id) != null
+                        && range.slice.contains(task) && !ownedByAnotherRange(range, id)) {
+                    engine.removeRemote(id);
+                }
+            }
+            range.awaitingFirstSnapshot = false;
+        }
+        for (String id : removedIds) {
+            range.ids.remove(id);
+            if (!ownedByAnotherRange(range, id)) {
+                engine.removeRemote(id);
+            }
+        }
+        for (Task task : upserted) {
+            range.ids.add(task.getId());
+            engine.upsertRemote(task);
+        }
+        listener.onTasksChanged();
+    }
+}
@@ -1,32 +1,94 @@
 package com.pranav.synctask.data;
 
 import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.ListenerRegistration;
 import com.pranav.synctask.models.Task;
 import com.pranav.synctask.models.User;
 import com.pranav.synctask.utils.FirebaseHelper;
-import com.pranav.synctask.utils.NetworkUtils;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TaskRepository {
+    private static final String TAG = "TaskRepository";
     private static volatile TaskRepository instance;
-    private ListenerRegistration tasksListenerRegistration;
-    private final List<Task> localTasks = new CopyOnWriteArrayList<>();
-    private List<Task> firestoreTasks = new ArrayList<>();
-    private final MutableLiveData<Result<List<Task>>> combinedTasksResult = new MutableLiveData<>();
+    // Roughly one frame; bursts of snapshots inside this window produce a single emission
+    private static final long EMIT_COALESCE_MS = 16;
+    // A space's task list is saved for the next cold start once it stops changing for this long
+    private static final long SNAPSHOT_SAVE_DELAY_MS = 1000;
+    // Tasks per listener page; 0 listens to the whole space with one query
+    public static final int DEFAULT_TASK_PAGE_SIZE = 100;
+    // Snapshot decoding, merging and sorting run here. The listener registry and
+    // mergeEngine are only touched on this thread.
+    private final ScheduledExecutorService pipelineExecutor = Executors.newSingleThreadScheduledExecutor();
+    // Task listeners per space, shared by subscribers and kept alive briefly after the last leaves
+    private final ListenerRegistry listenerRegistry = new ListenerRegistry(pipelineExecutor);
+    private boolean awaitingFirstSnapshot;
+    private boolean emitScheduled;
+    private int taskPageSize = DEFAULT_TASK_PAGE_SIZE;
+    // Paged listeners by space, for scroll positions to steer
+    private final Map<String, TaskPager> pagers = new HashMap<>();
+    // Slice of the tab on screen (null for the whole space), once a tab has been shown
+    private TaskSlice shownSlice;
+    private boolean tabShown;
+    // Snapshot writes waiting for their space's list to settle
+    private final Map<String, ScheduledFuture<?>> pendingSnapshotSaves = new HashMap<>();
+    // Recently viewed spaces keep their merged task sets so switching back paints instantly
+    private final SpaceTaskCache spaceCache = new SpaceTaskCache(SpaceTaskCache.DEFAULT_MAX_SPACES);
+    // Decoded Firestore tasks of the current space, kept in display order
+    private TaskMergeEngine mergeEngine = new TaskMergeEngine();
+    // Engine latestIndex was built from; its changes only continue that index
+    private TaskMergeEngine indexedEngine;
+    // Last emitted tasks of the current space, bucketed once for all the tabs
+    private volatile TaskIndex latestIndex = TaskIndex.EMPTY;
+    private final MutableLiveData<Result<TaskIndex>> combinedTasksResult = new MutableLiveData<>();
+    private final MutableLiveData<TaskSearch> searchResults = new MutableLiveData<>(TaskSearch.NONE);
+    // Query applied to the current space, re-run after every emission. Pipeline thread only.
+    private String activeQuery = "";
+    // Bumped by every searchTasks call; a queued search that is no longer the latest is skipped
+    private final AtomicInteger searchGeneration = new AtomicInteger();
     private final FirebaseHelper firebaseHelper;
-    private String currentSpaceId; // ADDED
+    private volatile String currentSpaceId; // ADDED
+    // Reads the backfill and archival schedules from SharedPreferences before starting those jobs
+    private final ExecutorService maintenanceExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Start time of the last finished backfill per space. Renamed when a derived field is
+    // added or changes meaning, so every space is backfilled in full again.
+    private static final String DERIVED_FIELD_BACKFILL_PREFS = "derived_field_backfill_v4";
+    // Later backfills also recheck tasks created this long before the last one started, in
+    // case the creating device's clock was behind
+    private static final long BACKFILL_CLOCK_SKEW_MS = TimeUnit.HOURS.toMillis(1);
+    // Spaces whose derived field backfill is running. Main thread only.
+    private final Set<String> derivedFieldBackfills = new HashSet<>();
+    // Tasks completed longer ago than this are moved to the archive; 0 keeps them live
+    public static final int DEFAULT_ARCHIVE_AFTER_DAYS = 30;
+    public static final int ARCHIVE_PAGE_SIZE = 50;
+    private static final long ARCHIVAL_INTERVAL_MS = TimeUnit.DAYS.toMillis(1);
+    private static final String ARCHIVAL_PREFS = "task_archival";
+    private volatile int archiveAfterDays = DEFAULT_ARCHIVE_AFTER_DAYS;
+    // Spaces whose archival pass is running. Main thread only.
+    private final Set<String> archivals = new HashSet<>();
 
     private TaskRepository() {
         firebaseHelper = new FirebaseHelper();
+        // An evicted space has nothing left to update, so stop listening to it
+        spaceCache.setEvictionListener(listenerRegistry::detach);
     }
 
     public static TaskRepository getInstance() {
@@ -40,192 +102,458 @@ public class TaskRepository {
         return instance;
     }
 
-    public LiveData<Result<List<Task>>> getTasks() {
+    public LiveData<Result<TaskIndex>> getTasks() {
         return combinedTasksResult;
     }
 
-    public Map<String, Integer> getTaskStats() {
-        Map<String, Integer> stats = new HashMap<>();
-        int completedCount = 0;
-        List<Task> allTasks = new ArrayList<>(firestoreTasks);
-        allTasks.addAll(localTasks);
-        for (Task task : allTasks) {
-            if (Task.STATUS_COMPLETED.equals(task.getStatus())) {
-                completedCount++;
-            }
-        }
-        stats.put("total", allTasks.size());
-        stats.put("completed", completedCount);
-        return stats;
+    public LiveData<TaskSearch> getSearchResults() {
+        return searchResults;
     }
 
-    public void attachTasksListener(String spaceId) {
-        // If the space ID is new, clear old data
-        if (!spaceId.equals(currentSpaceId)) {
-            firestoreTasks.clear();
-            localTasks.clear(); // Or handle local tasks differently
-            currentSpaceId = spaceId;
-        }
+    public LiveData<SpaceTaskCache.Stats> getSpaceCacheStats() {
+        return spaceCache.getStats();
+    }
 
-        if (tasksListenerRegistration != null) {
-            tasksListenerRegistration.remove();
-        }
+    public void setMaxCachedSpaces(int maxSpaces) {
+        pipelineExecutor.execute(() -> spaceCache.setMaxSize(maxSpaces));
+    }
+
+    public void setListenerLingerMillis(long lingerMillis) {
+        pipelineExecutor.execute(() -> listenerRegistry.setLingerMillis(lingerMillis));
+    }
 
-        combinedTasksResult.setValue(new Result.Loading<>());
-        tasksListenerRegistration = firebaseHelper.getTasks(spaceId, new FirebaseHelper.TasksCallback() {
+    // Applies to listeners attached afterwards
+    public void setTaskPageSize(int pageSize) {
+        pipelineExecutor.execute(() -> taskPageSize = Math.max(0, pageSize));
+    }
+
+    /**
+     * Reports the tasks on screen in the current space, so a paged listener can detach pages
+     * far from them. {@code atEnd} means the list is scrolled to (or cannot fill past) its end
+     * and the next page should be loaded.
+     */
+    public void onTasksVisible(List<Task> visible, boolean atEnd) {
+        pipelineExecutor.execute(() -> {
+            TaskPager pager = currentSpaceId != null ? pagers.get(currentSpaceId) : null;
+            if (pager == null || pager.isRemoved()) return;
+            pager.showWindow(visible, atEnd);
+            if (atEnd) {
+                pager.loadMore();
+            }
+        });
+    }
+
+    /**
+     * Reports the tab now on screen, so a paged listener queries only its slice (or pages
+     * through the whole space if null) and a short tab does not page in everything else.
+     */
+    public void showTab(TaskSlice slice) {
+        pipelineExecutor.execute(() -> {
+            shownSlice = slice;
+            tabShown = true;
+            TaskPager pager = currentSpaceId != null ? pagers.get(currentSpaceId) : null;
+            if (pager != null && !pager.isRemoved()) {
+                pager.showTab(slice);
+            }
+        });
+    }
+
+    // Counted on the server: with a paged listener the loaded tasks are only the pages it
+    // holds, so counting those would miss everything off screen
+    public LiveData<Result<Map<String, Integer>>> getTaskStats(String spaceId) {
+        MutableLiveData<Result<Map<String, Integer>>> result = new MutableLiveData<>(new Result.Loading<>());
+        firebaseHelper.countTasks(spaceId, new FirebaseHelper.TaskCountCallback() {
             @Override
-            public void onSuccess(List<Task> tasks) {
-                firestoreTasks = tasks;
-                mergeAndNotify();
+            public void onCounted(long total, long completed) {
+                Map<String, Integer> stats = new HashMap<>();
+                stats.put("total", (int) total);
+                stats.put("completed", (int) completed);
+                result.setValue(new Result.Success<>(stats));
             }
 
             @Override
             public void onError(Exception e) {
-                combinedTasksResult.setValue(new Result.Error<>(e));
+                result.setValue(new Result.Error<>(e));
             }
         });
+        return result;
     }
 
-    public void refreshTasks() {
-        if (currentSpaceId != null) {
-            attachTasksListener(currentSpaceId);
-        }
+    // Subscribes to the space's tasks and makes it the current space. Every call must be
+    // balanced by releaseTasksListener(spaceId).
+    public void attachTasksListener(String spaceId) {
+        pipelineExecutor.execute(() -> {
+            TaskMergeEngine engine = showSpace(spaceId);
+            listenerRegistry.acquire(spaceId, () -> listenTo(spaceId, engine));
+        });
     }
 
-    public LiveData<Result<Void>> updateTask(Task task) {
-        MutableLiveData<Result<Void>> result = new MutableLiveData<>();
-        if (task.getId() == null || task.getId().isEmpty()) {
-            for (int i = 0; i < localTasks.size(); i++) {
-                if (localTasks.get(i).getLocalId().equals(task.getLocalId())) {
-                    localTasks.set(i, task);
-                    break;
+    public void releaseTasksListener(String spaceId) {
+        pipelineExecutor.execute(() -> listenerRegistry.release(spaceId));
+    }
+
+    // Makes the space current without changing its subscribers, e.g. when its screen is shown again
+    public void selectSpace(String spaceId) {
+        pipelineExecutor.execute(() -> showSpace(spaceId));
+    }
+
+    private TaskMergeEngine showSpace(String spaceId) {
+        TaskMergeEngine engine = spaceCache.get(spaceId);
+        boolean cacheHit = engine != null;
+        boolean restored = false;
+        if (!cacheHit) {
+            engine = new TaskMergeEngine();
+            // Tasks saved by an earlier run; the listener's first snapshot reconciles them
+            List<Task> saved = SnapshotStore.getInstance().readTasks(spaceId);
+            if (saved != null) {
+                for (Task task : saved) {
+                    engine.upsertRemote(task);
                 }
+                restored = true;
             }
+            spaceCache.put(spaceId, engine);
+        }
+        if (spaceId.equals(currentSpaceId) && engine == mergeEngine) {
+            return engine;
+        }
+        mergeEngine = engine;
+        currentSpaceId = spaceId;
+        awaitingFirstSnapshot = !cacheHit && !restored;
+        if (restored) {
+            // First paint, no need to wait for the next frame's coalesced emission
+            emitTasks();
+        } else if (cacheHit) {
             mergeAndNotify();
-            result.setValue(new Result.Success<>(null));
         } else {
-            result.setValue(new Result.Loading<>());
-            firebaseHelper.updateTask(task.getId(), task.toMap(), new FirebaseHelper.TasksCallback() {
-                @Override
-                public void onSuccess(List<Task> tasks) {
-                    result.setValue(new Result.Success<>(null));
-                }
-
-                @Override
-                public void onError(Exception e) {
-                    result.setValue(new Result.Error<>(e));
-                }
-            });
+            publishTasks(new Result.Loading<>());
         }
-        return result;
+        return engine;
     }
 
-    private void mergeAndNotify() {
-        List<Task> mergedList = new ArrayList<>(firestoreTasks);
-        for (Task localTask : localTasks) {
-            // Only add local tasks for the current space
-            if (currentSpaceId.equals(localTask.getSpaceId())) {
-                boolean existsInFirestore = false;
-                for (Task firestoreTask : firestoreTasks) {
-                    if (localTask.getLocalId().equals(firestoreTask.getLocalId())) {
-                        existsInFirestore = true;
-                        break;
+    private ListenerRegistration listenTo(String spaceId, TaskMergeEngine spaceEngine) {
+        if (taskPageSize > 0) {
+            TaskPager pager = new TaskPager(firebaseHelper, spaceId, taskPageSize, pipelineExecutor, spaceEngine,
+                    new TaskPager.Listener() {
+                        @Override
+                        public void onTasksChanged() {
+                            scheduleSnapshotSave(spaceId, spaceEngine);
+                            if (spaceEngine == mergeEngine) {
+                                awaitingFirstSnapshot = false;
+                                mergeAndNotify();
+                            }
+                        }
+
+                        @Override
+                        public void onError(Exception e) {
+                            if (spaceId.equals(currentSpaceId)) {
+                                publishTasks(new Result.Error<>(e));
+                            }
+                        }
+                    });
+            pagers.put(spaceId, pager);
+            pager.setKeepAllPages(!activeQuery.isEmpty());
+            if (tabShown) {
+                pager.showTab(shownSlice);
+            }
+            return pager;
+        }
+        pagers.remove(spaceId);
+        return firebaseHelper.getTasks(spaceId, pipelineExecutor, new FirebaseHelper.TaskChangesCallback() {
+            // A fresh listener reports every document as ADDED; its first snapshot
+            // is reconciled against whatever the cache still holds for this space.
+            private boolean reconcilePending = true;
+
+            @Override
+            public void onChanges(List<Task> upserted, List<String> removedIds) {
+                if (!listenerRegistry.isAttached(spaceId)) return;
+                if (reconcilePending) {
+                    Set<String> liveIds = new HashSet<>();
+                    for (Task task : upserted) {
+                        liveIds.add(task.getId());
                     }
+                    spaceEngine.retainRemote(liveIds);
+                    reconcilePending = false;
                 }
-                if (!existsInFirestore) {
-                    mergedList.add(localTask);
+                for (String id : removedIds) {
+                    spaceEngine.removeRemote(id);
+                }
+                for (Task task : upserted) {
+                    spaceEngine.upsertRemote(task);
+                }
+                scheduleSnapshotSave(spaceId, spaceEngine);
+                if (spaceEngine == mergeEngine) {
+                    awaitingFirstSnapshot = false;
+                    mergeAndNotify();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (spaceId.equals(currentSpaceId)) {
+                    publishTasks(new Result.Error<>(e));
                 }
             }
+        });
+    }
+
+    // Saves the space's live task list once it has settled. Pipeline thread only.
+    private void scheduleSnapshotSave(String spaceId, TaskMergeEngine spaceEngine) {
+        ScheduledFuture<?> pending = pendingSnapshotSaves.remove(spaceId);
+        if (pending != null) {
+            pending.cancel(false);
         }
-        mergedList.sort((o1, o2) -> {
-            int priorityCompare = getPriorityValue(o2.getPriority()) - getPriorityValue(o1.getPriority());
-            if (priorityCompare == 0) {
-                if (o1.getCreatedAt() == null || o2.getCreatedAt() == null) return 0;
-                return o2.getCreatedAt().compareTo(o1.getCreatedAt());
+        pendingSnapshotSaves.put(spaceId, pipelineExecutor.schedule(() -> {
+            pendingSnapshotSaves.remove(spaceId);
+            if (listenerRegistry.isAttached(spaceId)) {
+                SnapshotStore.getInstance().saveTasks(spaceId, spaceEngine.snapshot());
+            }
+        }, SNAPSHOT_SAVE_DELAY_MS, TimeUnit.MILLISECONDS));
+    }
+
+    // The live listener already keeps the list current, so a refresh only confirms we can
+    // reach the server instead of tearing the listener down and re-reading the space.
+    public void refreshTasks() {
+        String spaceId = currentSpaceId;
+        if (spaceId == null) return;
+        firebaseHelper.checkTasksOnServer(spaceId, new FirebaseHelper.TasksCallback() {
+            @Override
+            public void onSuccess(List<Task> tasks) {
+                combinedTasksResult.setValue(new Result.Success<>(latestIndex));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                combinedTasksResult.setValue(new Result.Error<>(e));
             }
-            return priorityCompare;
         });
-        combinedTasksResult.postValue(new Result.Success<>(mergedList));
     }
 
-    // Task object must have spaceId set before calling this
-    public void createTask(Task task, Context context) {
-        boolean isOnline = NetworkUtils.isNetworkAvailable(context);
-        if (isOnline) {
-            task.setSynced(true);
-            firebaseHelper.createTask(task, new FirebaseHelper.TasksCallback() {
+    // Only the fields that differ from the task as the editor opened it are written, so an
+    // edit no longer overwrites fields a partner changed in the meantime. Without that
+    // snapshot only the fields the editor can change are written.
+    public LiveData<Result<Void>> updateTask(Task task, Map<String, Object> openedFields, Context context) {
+        MutableLiveData<Result<Void>> result = new MutableLiveData<>();
+        result.setValue(new Result.Loading<>());
+        pipelineExecutor.execute(() -> {
+            Map<String, Object> changes = openedFields != null ? task.diff(openedFields) : task.editableFields();
+            if (changes.isEmpty()) {
+                result.postValue(new Result.Success<>(null));
+                return;
+            }
+            // Firestore applies the write to its local cache at once and queues it while
+            // offline. Online, the edit is reported once the server has it; offline there
+            // is no ack to wait for, so it is reported right away and a later rejection is
+            // only logged. Either way observers see exactly one outcome.
+            boolean reportOnAck = ConnectivityMonitor.getInstance(context).isOnline();
+            firebaseHelper.updateTask(task.getId(), changes, new FirebaseHelper.TasksCallback() {
                 @Override
                 public void onSuccess(List<Task> tasks) {
+                    if (reportOnAck) {
+                        result.setValue(new Result.Success<>(null));
+                    }
                 }
 
                 @Override
                 public void onError(Exception e) {
-                    Log.e("TaskRepository", "Failed to create online task, saving locally.", e);
-                    createLocalTask(task);
+                    Log.e(TAG, "Failed to update task: " + task.getTitle(), e);
+                    if (reportOnAck) {
+                        result.setValue(new Result.Error<>(e));
+                    }
                 }
             });
-        } else {
-            createLocalTask(task);
-        }
+            if (!reportOnAck) {
+                result.postValue(new Result.Success<>(null));
+            }
+        });
+        return result;
     }
 
-    private void createLocalTask(Task task) {
-        task.setSynced(false);
-        localTasks.add(task);
-        mergeAndNotify();
+    // Hands every result to the main thread in order. postValue would keep only the latest
+    // pending one and drop index versions whose change sets the lists apply in sequence.
+    private void publishTasks(Result<TaskIndex> result) {
+        mainHandler.post(() -> combinedTasksResult.setValue(result));
     }
 
-    public void syncLocalTasks(Context context) {
-        boolean isOnline = NetworkUtils.isNetworkAvailable(context);
-        if (!isOnline || localTasks.isEmpty()) {
+    // Coalesces bursts of changes into at most one emission per frame. Pipeline thread only.
+    private void mergeAndNotify() {
+        if (emitScheduled) return;
+        emitScheduled = true;
+        pipelineExecutor.schedule(this::emitTasks, EMIT_COALESCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void emitTasks() {
+        emitScheduled = false;
+        if (awaitingFirstSnapshot) {
+            // Keep showing Loading, the listener's first snapshot will emit
             return;
         }
+        List<Task> tasks = mergeEngine.snapshot();
+        List<TaskChange> changes = mergeEngine.drainChanges();
+        if (mergeEngine != indexedEngine) {
+            // Another space was shown last, the list has to be replaced
+            changes = null;
+            indexedEngine = mergeEngine;
+        }
+        // The engine hands back the same list while nothing changed, so the index can be reused
+        if (tasks != latestIndex.getAll()) {
+            latestIndex = TaskIndex.build(tasks, latestIndex, changes);
+        }
+        publishTasks(new Result.Success<>(latestIndex));
+        if (!activeQuery.isEmpty()) {
+            publishSearch();
+        }
+    }
 
-        Log.d("TaskRepository", "Starting sync for " + localTasks.size() + " local tasks.");
-        for (Task localTask : localTasks) {
-            if (!localTask.isSynced()) {
-                // Only sync if the local task belongs to the currently viewed space
-                // Or, sync all, which is better
-                firebaseHelper.createTask(localTask, new FirebaseHelper.TasksCallback() {
+    // Searches titles and descriptions of the current space's loaded tasks off the main
+    // thread. While a query is active a paged listener keeps every loaded page attached, and
+    // the short filtered list keeps asking for the next page, so matches fill in as it loads.
+    public void searchTasks(String query) {
+        int generation = searchGeneration.incrementAndGet();
+        pipelineExecutor.execute(() -> {
+            if (generation != searchGeneration.get()) return; // A newer query is already queued
+            activeQuery = query != null ? query : "";
+            TaskPager pager = currentSpaceId != null ? pagers.get(currentSpaceId) : null;
+            if (pager != null && !pager.isRemoved()) {
+                pager.setKeepAllPages(!activeQuery.isEmpty());
+            }
+            publishSearch();
+        });
+    }
+
+    private void publishSearch() {
+        searchResults.postValue(activeQuery.isEmpty()
+                ? TaskSearch.NONE
+                : new TaskSearch(activeQuery, mergeEngine.search(activeQuery), latestIndex));
+    }
+
+    // Task object must have spaceId set before calling this. Firestore's local cache applies
+    // the write at once and queues it while offline, and the listener shows the task as
+    // unsynced until the server has it, so there is no second offline copy to reconcile.
+    public void createTask(Task task) {
+        firebaseHelper.createTask(task, new FirebaseHelper.TasksCallback() {
+            @Override
+            public void onSuccess(List<Task> tasks) {
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Failed to create task: " + task.getTitle(), e);
+            }
+        });
+    }
+
+    public void updateTaskStatus(Task task, String newStatus) {
+        firebaseHelper.updateTaskStatus(task.getId(), newStatus, new FirebaseHelper.TasksCallback() {
+            @Override
+            public void onSuccess(List<Task> tasks) {
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Failed to update status for task: " + task.getTitle(), e);
+            }
+        });
+    }
+
+    public void deleteTask(Task task) {
+        firebaseHelper.deleteTask(task.getId(), new FirebaseHelper.TasksCallback() {
+            @Override
+            public void onSuccess(List<Task> tasks) {
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Failed to delete task: " + task.getTitle(), e);
+            }
+        });
+    }
+
+    /**
+     * Gives the space's tasks the sortKey the listener orders by and the dueDay and dueMonth
+     * the tabs query; tasks without them do not show up there until this has run. The first
+     * run covers the whole space. Later ones, each time the space is opened, only cover tasks
+     * created since the previous run, which is where tasks from not yet updated clients land.
+     */
+    public void backfillDerivedFields(String spaceId, Context context) {
+        SharedPreferences prefs = context.getApplicationContext()
+                .getSharedPreferences(DERIVED_FIELD_BACKFILL_PREFS, Context.MODE_PRIVATE);
+        maintenanceExecutor.execute(() -> {
+            long lastRun = prefs.getLong(spaceId, 0);
+            long createdSince = lastRun > 0 ? Math.max(1, lastRun - BACKFILL_CLOCK_SKEW_MS) : 0;
+            mainHandler.post(() -> {
+                if (!derivedFieldBackfills.add(spaceId)) return; // Already running
+                long startedAt = System.currentTimeMillis();
+                firebaseHelper.backfillDerivedFields(spaceId, createdSince, new FirebaseHelper.BackfillCallback() {
                     @Override
-                    public void onSuccess(List<Task> tasks) {
-                        localTasks.remove(localTask);
-                        mergeAndNotify();
+                    public void onComplete(int updated) {
+                        derivedFieldBackfills.remove(spaceId);
+                        prefs.edit().putLong(spaceId, startedAt).apply();
                     }
 
                     @Override
                     public void onError(Exception e) {
-                        Log.e("TaskRepository", "Sync failed for task: " + localTask.getTitle(), e);
+                        // Retried the next time the space is opened
+                        Log.w(TAG, "Derived field backfill failed for space " + spaceId, e);
+                        derivedFieldBackfills.remove(spaceId);
                     }
                 });
-            }
-        }
+            });
+        });
     }
 
-    public void removeTasksListener() {
-        if (tasksListenerRegistration != null) {
-            tasksListenerRegistration.remove();
-            tasksListenerRegistration = null;
-        }
+    public void setArchiveAfterDays(int days) {
+        archiveAfterDays = Math.max(0, days);
     }
 
-    private int getPriorityValue(String priority) {
-        if (priority == null) return 1;
-        switch (priority) {
-            case "High":
-                return 2;
-            case "Low":
-                return 0;
-            default:
-                return 1;
-        }
-    }
+    /**
+     * Moves the space's tasks completed more than the archive age ago out of the live
+     * collection, keeping what the listener loads bounded however old the space is. Runs at
+     * most once a day per space on this device; the removals reach the list as deletions.
+     */
+    public void archiveCompletedTasks(String spaceId, Context context) {
+        int days = archiveAfterDays;
+        if (days == 0) return;
+        SharedPreferences prefs = context.getApplicationContext()
+                .getSharedPreferences(ARCHIVAL_PREFS, Context.MODE_PRIVATE);
+        maintenanceExecutor.execute(() -> {
+            long now = System.currentTimeMillis();
+            if (now - prefs.getLong(spaceId, 0) < ARCHIVAL_INTERVAL_MS) return;
+            mainHandler.post(() -> {
+                if (!archivals.add(spaceId)) return; // Already running
+                firebaseHelper.archiveCompletedTasks(spaceId, now - TimeUnit.DAYS.toMillis(days),
+                        new FirebaseHelper.ArchiveCallback() {
+                            @Override
+                            public void onComplete(int archived) {
+                                archivals.remove(spaceId);
+                                prefs.edit().putLong(spaceId, now).apply();
+                            }
 
-    public void updateTaskStatus(String taskId, String newStatus) {
-        firebaseHelper.updateTaskStatus(taskId, newStatus);
+                            @Override
+                            public void onError(Exception e) {
+                                // Retried the next time the space is opened
+                                Log.w(TAG, "Archiving completed tasks failed for space " + spaceId, e);
+                                archivals.remove(spaceId);
+                            }
+                        });
+            });
+        });
     }
 
-    public void deleteTask(String taskId) {
-        firebaseHelper.deleteTask(taskId);
+    // The page of archived tasks after the given one, or the first page if it is null
+    public LiveData<Result<ArchivePage>> getArchivedTasks(String spaceId, ArchivePage after) {
+        MutableLiveData<Result<ArchivePage>> result = new MutableLiveData<>(new Result.Loading<>());
+        firebaseHelper.getArchivedTaskPage(spaceId, after != null ? after.cursor : null, ARCHIVE_PAGE_SIZE,
+                new FirebaseHelper.ArchivePageCallback() {
+                    @Override
+                    public void onPage(List<Task> tasks, DocumentSnapshot last) {
+                        result.setValue(new Result.Success<>(new ArchivePage(tasks, last)));
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        result.setValue(new Result.Error<>(e));
+                    }
+                });
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.pranav.synctask.data;
+
+import com.pranav.synctask.models.Task;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outcome of a task search against the current space. An empty query matches everything.
+ * A result is tied to the {@link TaskIndex} it was computed for; after a new emission the
+ * matching result follows right behind it.
+ * <p>
+ * Only the tasks loaded so far are searched. With a paged listener that is the pages read
+ * up to now, not the whole space; later pages add their matches as they load.
+ */
+public class TaskSearch {
+    public static final TaskSearch NONE = new TaskSearch("", null, null);
+
+    public final String query;
+    // Matching tasks by identity, or null when there is no query
+    private final Set<Task> matches;
+    private final TaskIndex index;
+
+    TaskSearch(String query, Set<Task> matches, TaskIndex index) {
+        this.query = query;
+        this.matches = matches;
+        this.index = index;
+    }
+
+    public boolean isActive() {
+        return matches != null;
+    }
+
+    /** Whether this result can filter the given index; inactive results fit any index. */
+    public boolean isFor(TaskIndex index) {
+        return matches == null || this.index == index;
+    }
+
+    public boolean matches(Task task) {
+        return matches == null || matches.contains(task);
+    }
+
+    /** Keeps the tasks of the list that match, in their original order. */
+    public List<Task> filter(List<Task> tasks) {
+        if (matches == null) return tasks;
+        List<Task> filtered = new ArrayList<>(Math.min(tasks.size(), matches.size()));
+        for (Task task : tasks) {
+            if (matches.contains(task)) {
+                filtered.add(task);
+            }
+        }
+        return filtered;
+    }
+}
@@ -0,0 +1,52 @@
+package com.pranav.synctask.data;
+
+import com.pranav.synctask.models.Task;
+import com.pranav.synctask.utils.DateUtils;
+import com.pranav.synctask.utils.FirebaseHelper;
+
+/**
+ * The tasks of a space due on one day or in one month, i.e. what the Today and This Month
+ * tabs show. A paged listener queries a shown slice on its own instead of paging through
+ * the whole space to fill it.
+ */
+public final class TaskSlice {
+    // The stored field the slice is queried by, and the value it must equal
+    final String field;
+    final long value;
+
+    private TaskSlice(String field, long value) {
+        this.field = field;
+        this.value = value;
+    }
+
+    public static TaskSlice dueOn(long epochDay) {
+        return new TaskSlice(FirebaseHelper.DUE_DAY_FIELD, epochDay);
+    }
+
+    public static TaskSlice dueInMonth(int monthKey) {
+        return new TaskSlice(FirebaseHelper.DUE_MONTH_FIELD, monthKey);
+    }
+
+    // Whether the task's due date falls in the slice, the same way Task.toMap() derives the field
+    boolean contains(Task task) {
+        long dueDate = task.getDueDateMillis();
+        if (dueDate == Task.NO_DATE) return false;
+        long taskValue = FirebaseHelper.DUE_DAY_FIELD.equals(field)
+                ? DateUtils.dueDay(dueDate)
+                : DateUtils.dueMonth(dueDate);
+        return taskValue == value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TaskSlice)) return false;
+        TaskSlice other = (TaskSlice) o;
+        return value == other.value && field.equals(other.field);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * field.hashCode() + Long.hashCode(value);
+    }
+}
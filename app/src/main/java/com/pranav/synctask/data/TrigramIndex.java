@@ -0,0 +1,111 @@
+package com.pranav.synctask.data;
+
+import com.pranav.synctask.models.Task;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from lower-cased character trigrams of a task's title and description to
+ * the tasks containing them. A substring query intersects the posting lists of its own
+ * trigrams, starting from the shortest, and only verifies the few candidates left, so the
+ * cost follows the number of matches rather than the size of the space.
+ * Tasks are tracked by identity and the index is updated as they are added and removed.
+ * Not thread-safe: it lives inside a {@link TaskMergeEngine} on the repository's pipeline thread.
+ */
+public class TrigramIndex {
+    private static final int GRAM = 3;
+
+    // Normalized text each task was indexed with, so it can be un-indexed even if mutated since
+    private final Map<Task, String> textByTask = new IdentityHashMap<>();
+    private final Map<Long, Set<Task>> postings = new HashMap<>();
+
+    public void add(Task task) {
+        remove(task);
+        String text = normalize(task.getTitle()) + '\n' + normalize(task.getDescription());
+        textByTask.put(task, text);
+        for (long gram : grams(text)) {
+            Set<Task> posting = postings.get(gram);
+            if (posting == null) {
+                posting = Collections.newSetFromMap(new IdentityHashMap<>());
+                postings.put(gram, posting);
+            }
+            posting.add(task);
+        }
+    }
+
+    public void remove(Task task) {
+        String text = textByTask.remove(task);
+        if (text == null) return;
+        for (long gram : grams(text)) {
+            Set<Task> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(task);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        textByTask.clear();
+        postings.clear();
+    }
+
+    /** Returns the indexed tasks whose title or description contains the query, ignoring case. */
+    public Set<Task> search(String query) {
+        String needle = normalize(query);
+        Set<Task> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (needle.length() < GRAM) {
+            // Too short to have a trigram; fall back to checking every task
+            for (Map.Entry<Task, String> entry : textByTask.entrySet()) {
+                if (entry.getValue().contains(needle)) {
+                    matches.add(entry.getKey());
+                }
+            }
+            return matches;
+        }
+        List<Set<Task>> lists = new ArrayList<>();
+        for (long gram : grams(needle)) {
+            Set<Task> posting = postings.get(gram);
+            if (posting == null) return matches;
+            lists.add(posting);
+        }
+        Collections.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+        candidates:
+        for (Task candidate : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(candidate)) continue candidates;
+            }
+            // Sharing every trigram does not guarantee they appear contiguously
+            if (textByTask.get(candidate).contains(needle)) {
+                matches.add(candidate);
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        return textByTask.size();
+    }
+
+    private static String normalize(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    }
+
+    // Three UTF-16 units packed into one long key
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+}
@@ -1,9 +1,13 @@
 package com.pranav.synctask.data;
+import android.content.Context;
+import android.content.SharedPreferences;
 import android.net.Uri;
+import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.UserProfileChangeRequest;
+import com.google.firebase.firestore.FirebaseFirestoreException;
 import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.StorageReference;
@@ -11,10 +15,24 @@ import com.pranav.synctask.models.Space;
 import com.pranav.synctask.models.User;
 import com.pranav.synctask.utils.FirebaseHelper;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class UserRepository {
+    private static final String TAG = "UserRepository";
     private static volatile UserRepository instance;
+    // Leaves and deletions not finished yet, keyed "uid:op:spaceId"; only the user who
+    // started one resumes it
+    private static final String SPACE_DELETION_PREFS = "space_deletions";
+    private static final String OP_LEAVE = "leave";
+    private static final String OP_DELETE = "delete";
+    // Tasks deleted so far by the running leave or deletion, null when none is running
+    private final MutableLiveData<Integer> spaceDeletionProgress = new MutableLiveData<>();
+    // Journal keys of the deletions running in this process. Main thread only.
+    private final Set<String> runningSpaceDeletions = new HashSet<>();
+    // User whose unfinished deletions were resumed in this process
+    private String spaceDeletionsResumedFor;
     private ListenerRegistration userListenerRegistration;
     private User currentUserCache;
     private final FirebaseHelper firebaseHelper;
@@ -152,12 +170,18 @@ public class UserRepository {
         return result;
     }
 
+    // Spaces as last loaded, read synchronously for the dashboard's first frame; null if none
+    public List<Space> getSavedSpaces() {
+        return SnapshotStore.getInstance().readSpaces();
+    }
+
     public LiveData<Result<List<Space>>> getSpaces(List<String> spaceIds) {
         MutableLiveData<Result<List<Space>>> result = new MutableLiveData<>();
         result.setValue(new Result.Loading<>());
         firebaseHelper.getSpaces(spaceIds, new FirebaseHelper.SpacesCallback() {
             @Override
             public void onSuccess(List<Space> spaces) {
+                SnapshotStore.getInstance().saveSpaces(spaces);
                 result.setValue(new Result.Success<>(spaces));
             }
 
@@ -209,40 +233,85 @@ public class UserRepository {
         return result;
     }
 
-    public LiveData<Result<Void>> leaveSpace(String spaceId, String userUID) {
-        MutableLiveData<Result<Void>> result = new MutableLiveData<>();
-        result.setValue(new Result.Loading<>());
-        firebaseHelper.leaveSpace(spaceId, userUID, new FirebaseHelper.SpaceCallback() {
-            @Override
-            public void onSuccess(Space space) {
-                result.setValue(new Result.Success<>(null));
-            }
-
-            @Override
-            public void onError(Exception e) {
-                result.setValue(new Result.Error<>(e));
-            }
-        });
-        return result;
+    public LiveData<Result<Void>> leaveSpace(String spaceId, String userUID, Context context) {
+        return runSpaceDeletion(context, OP_LEAVE, spaceId, userUID);
     }
 
     // --- NEW ---
-    public LiveData<Result<Void>> deleteSpace(String spaceId, String userUID) {
+    public LiveData<Result<Void>> deleteSpace(String spaceId, String userUID, Context context) {
+        return runSpaceDeletion(context, OP_DELETE, spaceId, userUID);
+    }
+
+    public LiveData<Integer> getSpaceDeletionProgress() {
+        return spaceDeletionProgress;
+    }
+
+    // Runs again the leaves and deletions an earlier process did not finish, e.g. when it
+    // was killed or lost the network halfway through a large space
+    public void resumeSpaceDeletions(Context context, String userUID) {
+        if (userUID.equals(spaceDeletionsResumedFor)) return;
+        spaceDeletionsResumedFor = userUID;
+        for (String key : spaceDeletionPrefs(context).getAll().keySet()) {
+            String[] parts = key.split(":", 3);
+            // Another account's entries wait until that account signs in again
+            if (parts.length != 3 || !parts[0].equals(userUID)) continue;
+            Log.d(TAG, "Resuming " + key);
+            runSpaceDeletion(context, parts[1], parts[2], userUID);
+        }
+    }
+
+    private LiveData<Result<Void>> runSpaceDeletion(Context context, String op, String spaceId, String userUID) {
         MutableLiveData<Result<Void>> result = new MutableLiveData<>();
         result.setValue(new Result.Loading<>());
-        firebaseHelper.deleteSpace(spaceId, userUID, new FirebaseHelper.SpaceCallback() {
+        String key = userUID + ":" + op + ":" + spaceId;
+        if (!runningSpaceDeletions.add(key)) {
+            return result; // Already running, e.g. resumed at startup
+        }
+        // Journaled before anything is deleted, so a run cut short is resumed next time
+        SharedPreferences prefs = spaceDeletionPrefs(context);
+        prefs.edit().putBoolean(key, true).apply();
+        FirebaseHelper.SpaceDeletionCallback callback = new FirebaseHelper.SpaceDeletionCallback() {
             @Override
-            public void onSuccess(Space space) {
-                // Space will be null on success, which is fine
+            public void onProgress(int tasksDeleted) {
+                spaceDeletionProgress.setValue(tasksDeleted);
+            }
+
+            @Override
+            public void onSuccess() {
+                runningSpaceDeletions.remove(key);
+                prefs.edit().remove(key).apply();
+                spaceDeletionProgress.setValue(null);
                 result.setValue(new Result.Success<>(null));
             }
 
             @Override
             public void onError(Exception e) {
+                runningSpaceDeletions.remove(key);
+                if (isFinal(e)) {
+                    // Nothing a retry could change, e.g. the space is already gone
+                    prefs.edit().remove(key).apply();
+                }
+                spaceDeletionProgress.setValue(null);
                 result.setValue(new Result.Error<>(e));
             }
-        });
+        };
+        if (OP_DELETE.equals(op)) {
+            firebaseHelper.deleteSpace(spaceId, userUID, callback);
+        } else {
+            firebaseHelper.leaveSpace(spaceId, userUID, callback);
+        }
         return result;
     }
+
+    private static boolean isFinal(Exception e) {
+        if (!(e instanceof FirebaseFirestoreException)) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) e).getCode();
+        return code == FirebaseFirestoreException.Code.NOT_FOUND
+                || code == FirebaseFirestoreException.Code.PERMISSION_DENIED;
+    }
+
+    private static SharedPreferences spaceDeletionPrefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(SPACE_DELETION_PREFS, Context.MODE_PRIVATE);
+    }
     // --- END NEW ---
 }
\ No newline at end of file
@@ -1,13 +1,14 @@
 package com.pranav.synctask.fragments;
 
+import com.pranav.synctask.data.TaskIndex;
 import com.pranav.synctask.models.Task;
 import java.util.List;
 
 public class AllTasksFragment extends BaseTaskFragment {
 
     @Override
-    protected List<Task> filterTasks(List<Task> tasks) {
+    protected List<Task> selectTasks(TaskIndex index) {
         // No filtering needed for all tasks
-        return tasks;
+        return index.getAll();
     }
 }
\ No newline at end of file
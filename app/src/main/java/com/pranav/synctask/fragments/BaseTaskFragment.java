@@ -1,9 +1,5 @@
 package com.pranav.synctask.fragments;
 
-import android.content.Context;
-import android.net.ConnectivityManager;
-import android.net.Network;
-import android.net.NetworkRequest;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -21,15 +17,20 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.pranav.synctask.R;
+import com.pranav.synctask.activities.MainActivity;
 import com.pranav.synctask.adapters.TaskAdapter;
 import com.pranav.synctask.data.Result;
+import com.pranav.synctask.data.TaskIndex;
+import com.pranav.synctask.data.TaskSearch;
+import com.pranav.synctask.data.TaskSlice;
 import com.pranav.synctask.models.Task;
 import com.pranav.synctask.ui.viewmodels.TasksViewModel;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public abstract class BaseTaskFragment extends Fragment {
+    // Rows from the end at which the next page of a paged listener is requested
+    private static final int LOAD_MORE_THRESHOLD = 10;
 
     protected RecyclerView recyclerView;
     protected TaskAdapter adapter;
@@ -37,10 +38,16 @@ public abstract class BaseTaskFragment extends Fragment {
     protected TextView emptyView;
     private String currentUserId;
     private TasksViewModel viewModel;
-    private ConnectivityManager.NetworkCallback networkCallback;
     // PHASE 4: Local copies of data for filtering
-    private List<Task> currentTaskList = new ArrayList<>();
-    private String currentSearchQuery = "";
+    private TaskIndex currentIndex = TaskIndex.EMPTY;
+    private TaskSearch currentSearch = TaskSearch.NONE;
+    // What the adapter currently shows, so the next index can be applied as a change set
+    private TaskIndex displayedIndex;
+    private TaskSearch displayedSearch;
+    // Last visible range reported to the repository, to skip repeats while scrolling
+    private int reportedFirst = RecyclerView.NO_POSITION;
+    private int reportedLast = RecyclerView.NO_POSITION;
+    private TaskIndex reportedIndex;
 
     @Nullable
     @Override
@@ -54,6 +61,7 @@ public abstract class BaseTaskFragment extends Fragment {
         recyclerView = view.findViewById(R.id.recycler_view);
         swipeRefreshLayout = view.findViewById(R.id.swipe_refresh_layout);
         emptyView = view.findViewById(R.id.empty_view);
+        viewModel = new ViewModelProvider(requireActivity()).get(TasksViewModel.class);
 
         setupRecyclerView();
 
@@ -70,33 +78,51 @@ public abstract class BaseTaskFragment extends Fragment {
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
-        viewModel = new ViewModelProvider(requireActivity()).get(TasksViewModel.class);
         observeViewModel();
     }
 
     private void setupRecyclerView() {
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        adapter = new TaskAdapter(getContext(), new ArrayList<>(), currentUserId);
-        recyclerView.setAdapter(adapter);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        adapter = new TaskAdapter(getContext(), new ArrayList<>(), viewModel.getItemMapper(requireContext(), currentUserId));
+        // A new adapter starts empty, so the next index is shown in full
+        displayedIndex = null;
+        displayedSearch = null;
+        if (requireActivity() instanceof MainActivity) {
+            ((MainActivity) requireActivity()).getTaskViewPool().attach(recyclerView, layoutManager, adapter);
+        } else {
+            recyclerView.setLayoutManager(layoutManager);
+            recyclerView.setAdapter(adapter);
+        }
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                reportVisibleTasks();
+            }
+        });
     }
 
     @Override
-    public void onStart() {
-        super.onStart();
-
-        // --- THIS IS THE FIX ---
-        // The call 'viewModel.loadTasks(currentUserId)' was REMOVED from here.
-        // MainActivity is now responsible for telling the ViewModel which spaceId to load.
-        // This fragment just observes the results.
-        // --- END FIX ---
-
-        registerNetworkCallback();
+    public void onResume() {
+        super.onResume();
+        // This tab now steers the paged listener; the slice is re-read in case the day changed
+        viewModel.showTab(querySlice());
+        reportedIndex = null;
+        reportVisibleTasks();
     }
 
-    @Override
-    public void onStop() {
-        super.onStop();
-        unregisterNetworkCallback();
+    // Tells the repository which tasks are on screen; only the tab being shown reports
+    private void reportVisibleTasks() {
+        if (!isResumed()) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == reportedFirst && last == reportedLast && currentIndex == reportedIndex) return;
+        reportedFirst = first;
+        reportedLast = last;
+        reportedIndex = currentIndex;
+        // A list too short to fill the screen also asks for more, e.g. Updates before its tasks are loaded
+        boolean atEnd = last == RecyclerView.NO_POSITION || last >= adapter.getItemCount() - 1 - LOAD_MORE_THRESHOLD;
+        viewModel.onTasksVisible(adapter.getTasks(first, last), atEnd);
     }
 
     private void observeViewModel() {
@@ -107,65 +133,54 @@ public abstract class BaseTaskFragment extends Fragment {
             swipeRefreshLayout.setRefreshing(result instanceof Result.Loading);
 
             if (result instanceof Result.Success) {
-                currentTaskList = ((Result.Success<List<Task>>) result).data;
+                currentIndex = ((Result.Success<TaskIndex>) result).data;
                 filterAndDisplayTasks(); // PHASE 4
             } else if (result instanceof Result.Error) {
-                Log.e(getClass().getSimpleName(), "Error loading tasks", ((Result.Error<List<Task>>) result).exception);
+                Log.e(getClass().getSimpleName(), "Error loading tasks", ((Result.Error<TaskIndex>) result).exception);
                 Toast.makeText(getContext(), "Error loading tasks.", Toast.LENGTH_SHORT).show();
             }
         });
-        // PHASE 4: Observe search query changes
-        viewModel.getSearchQuery().observe(getViewLifecycleOwner(), query -> {
-            currentSearchQuery = query;
+        // Search runs off the main thread; results arrive once the typing settles
+        viewModel.getSearchResults().observe(getViewLifecycleOwner(), search -> {
+            currentSearch = search;
             filterAndDisplayTasks();
         });
     }
 
     // PHASE 4: Centralized filtering logic
     private void filterAndDisplayTasks() {
-        // 1. Apply time-based filter (Today, All, etc.)
-        List<Task> timeFilteredTasks = filterTasks(currentTaskList);
-        // 2. Apply search filter
-        List<Task> finalFilteredTasks;
-        if (currentSearchQuery.isEmpty()) {
-            finalFilteredTasks = timeFilteredTasks;
+        // A new index is followed by its own search result; skip rendering it with stale matches
+        if (!currentSearch.isFor(currentIndex)) return;
+        // 1. Read this tab's slice of the shared index (Today, All, etc.)
+        List<Task> timeFilteredTasks = selectTasks(currentIndex);
+        if (currentIndex == displayedIndex && currentSearch == displayedSearch) return;
+        // 2. Apply the changes since the shown index, or rebuild the list with the search filter
+        if (displayedSearch != null && currentSearch.query.equals(displayedSearch.query)
+                && currentIndex.follows(displayedIndex)) {
+            adapter.applyChanges(currentIndex.getChanges(), timeFilteredTasks, currentSearch);
         } else {
-            finalFilteredTasks = timeFilteredTasks.stream()
-                    .filter(task -> task.getTitle().toLowerCase().contains(currentSearchQuery.toLowerCase()))
-                    .collect(Collectors.toList());
-        }
-
-        adapter.updateTasks(finalFilteredTasks);
-        updateEmptyView(finalFilteredTasks.isEmpty());
-    }
-
-    private void registerNetworkCallback() {
-        ConnectivityManager cm = (ConnectivityManager) requireContext().getSystemService(Context.CONNECTIVITY_SERVICE);
-        networkCallback = new ConnectivityManager.NetworkCallback() {
-            @Override
-            public void onAvailable(@NonNull Network network) {
-                super.onAvailable(network);
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        viewModel.syncLocalTasks(requireContext());
-                    });
-                }
-            }
-        };
-        cm.registerNetworkCallback(new NetworkRequest.Builder().build(), networkCallback);
-    }
-
-    private void unregisterNetworkCallback() {
-        if (networkCallback != null) {
-            ConnectivityManager cm = (ConnectivityManager) requireContext().getSystemService(Context.CONNECTIVITY_SERVICE);
-            cm.unregisterNetworkCallback(networkCallback);
+            adapter.setTasks(currentSearch.filter(timeFilteredTasks));
         }
+        displayedIndex = currentIndex;
+        displayedSearch = currentSearch;
+        updateEmptyView(adapter.getItemCount() == 0);
+        // Once laid out, the new rows decide which pages stay attached
+        recyclerView.post(this::reportVisibleTasks);
     }
 
     private void updateEmptyView(boolean isEmpty) {
+        // Search only covers the pages loaded so far, so an empty result is not final
+        emptyView.setText(currentSearch.isActive() ? R.string.no_search_matches_message : R.string.no_tasks_message);
         emptyView.setVisibility(isEmpty ? View.VISIBLE : View.GONE);
         recyclerView.setVisibility(isEmpty ? View.GONE : View.VISIBLE);
     }
 
-    protected abstract List<Task> filterTasks(List<Task> tasks);
+    // Returns this tab's tasks; the index is built once per emission and shared by all tabs
+    protected abstract List<Task> selectTasks(TaskIndex index);
+
+    // The slice selectTasks() reads, for the listener to query on its own; null for the whole space
+    @Nullable
+    protected TaskSlice querySlice() {
+        return null;
+    }
 }
\ No newline at end of file
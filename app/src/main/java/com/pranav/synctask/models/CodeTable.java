@@ -0,0 +1,48 @@
+package com.pranav.synctask.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the values of a free-form string field to byte codes.
+ * The known values passed in get fixed codes 0..n-1; anything else read from Firestore
+ * is appended on first sight, so it still round-trips exactly. Codes of appended values
+ * are only stable within the process. Once all byte codes are taken, further values get
+ * {@link #UNCODED} and the caller keeps the string itself.
+ */
+final class CodeTable {
+    static final byte NONE = -1;
+    // Returned for values that no longer fit; decode() cannot recover them
+    static final byte UNCODED = -2;
+
+    private final Map<String, Byte> codes = new HashMap<>();
+    private volatile String[] values;
+
+    CodeTable(String... known) {
+        values = known.clone();
+        for (int i = 0; i < known.length; i++) {
+            codes.put(known[i], (byte) i);
+        }
+    }
+
+    synchronized byte encode(String value) {
+        if (value == null) return NONE;
+        Byte code = codes.get(value);
+        if (code != null) return code;
+        String[] current = values;
+        if (current.length > Byte.MAX_VALUE) {
+            // Only reachable with junk data; a document being decoded must not fail on it
+            return UNCODED;
+        }
+        String[] grown = new String[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[current.length] = value;
+        codes.put(value, (byte) current.length);
+        values = grown;
+        return (byte) current.length;
+    }
+
+    String decode(byte code) {
+        return code < 0 ? null : values[code];
+    }
+}
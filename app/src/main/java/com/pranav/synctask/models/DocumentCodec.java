@@ -0,0 +1,71 @@
+package com.pranav.synctask.models;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import java.util.List;
+
+/**
+ * Builds models straight from {@link DocumentSnapshot} field getters.
+ * Replaces toObject(), which maps fields reflectively and runs each model's no-arg
+ * constructor first. Field names must stay in step with the models' toMap() methods.
+ */
+public final class DocumentCodec {
+
+    private DocumentCodec() {
+    }
+
+    public static Task decodeTask(DocumentSnapshot doc) {
+        if (!doc.exists()) return null;
+        Task task = new Task(doc.getId());
+        String localId = doc.getString("localId");
+        // Tasks created before localId was stored use their document ID
+        task.setLocalId(localId != null ? localId : doc.getId());
+        task.setCreatorUID(doc.getString("creatorUID"));
+        task.setTitle(doc.getString("title"));
+        task.setDescription(doc.getString("description"));
+        task.setStatus(doc.getString("status"));
+        task.setDueDateFromDate(doc.getDate("dueDate"));
+        task.setCreatedAtFromDate(doc.getDate("createdAt"));
+        task.setCompletedAtFromDate(doc.getDate("completedAt"));
+        // Only set on documents in the archive collection
+        task.setArchivedAtFromDate(doc.getDate("archivedAt"));
+        task.setTaskType(doc.getString("taskType"));
+        task.setSpaceId(doc.getString("spaceId"));
+        String creatorDisplayName = doc.getString("creatorDisplayName");
+        task.setCreatorDisplayName(creatorDisplayName != null ? creatorDisplayName : "A user");
+        String priority = doc.getString("priority");
+        task.setPriority(priority != null ? priority : "Normal");
+        String ownershipScope = doc.getString("ownershipScope");
+        task.setOwnershipScope(ownershipScope != null ? ownershipScope : Task.SCOPE_SHARED);
+        // Writes waiting in Firestore's local cache have not reached the server yet
+        task.setSynced(!doc.getMetadata().hasPendingWrites());
+        return task;
+    }
+
+    public static User decodeUser(DocumentSnapshot doc) {
+        if (!doc.exists()) return null;
+        User user = new User();
+        user.setUid(doc.getString("uid"));
+        user.setEmail(doc.getString("email"));
+        user.setDisplayName(doc.getString("displayName"));
+        user.setPhotoURL(doc.getString("photoURL"));
+        user.setFcmToken(doc.getString("fcmToken"));
+        user.setSpaceIds(stringList(doc, "spaceIds"));
+        return user;
+    }
+
+    public static Space decodeSpace(DocumentSnapshot doc) {
+        if (!doc.exists()) return null;
+        Space space = new Space();
+        space.setSpaceId(doc.getString("spaceId"));
+        space.setSpaceName(doc.getString("spaceName"));
+        space.setMembers(stringList(doc, "members"));
+        space.setInviteCode(doc.getString("inviteCode"));
+        return space;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> stringList(DocumentSnapshot doc, String field) {
+        Object value = doc.get(field);
+        return value instanceof List ? (List<String>) value : null;
+    }
+}
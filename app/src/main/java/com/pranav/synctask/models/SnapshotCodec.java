@@ -0,0 +1,154 @@
+package com.pranav.synctask.models;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of the task and space lists last shown, read back at startup to
+ * paint the first frame before any listener has fired. Coded task fields are written as
+ * strings because their codes are process-local. Any malformed input decodes to null.
+ */
+public final class SnapshotCodec {
+    private static final int MAGIC = 0x53545348; // "STSH"
+    // Bump whenever the record layout changes; older files are then ignored
+    private static final int FORMAT_VERSION = 2;
+    private static final int KIND_TASKS = 1;
+    private static final int KIND_SPACES = 2;
+
+    private SnapshotCodec() {
+    }
+
+    public static void writeTasks(DataOutputStream out, List<Task> tasks) throws IOException {
+        writeHeader(out, KIND_TASKS, tasks.size());
+        for (Task task : tasks) {
+            writeString(out, task.getId());
+            writeString(out, task.getLocalId());
+            writeString(out, task.getCreatorUID());
+            writeString(out, task.getCreatorDisplayName());
+            writeString(out, task.getTitle());
+            writeString(out, task.getDescription());
+            writeString(out, task.getStatus());
+            writeString(out, task.getTaskType());
+            writeString(out, task.getPriority());
+            writeString(out, task.getOwnershipScope());
+            writeString(out, task.getSpaceId());
+            out.writeLong(task.getDueDateMillis());
+            out.writeLong(task.getCreatedAtMillis());
+            out.writeLong(task.getCompletedAtMillis());
+            out.writeBoolean(task.isSynced());
+        }
+    }
+
+    public static List<Task> readTasks(ByteBuffer in) {
+        try {
+            int count = readHeader(in, KIND_TASKS);
+            if (count < 0) return null;
+            List<Task> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Task task = new Task(readString(in));
+                task.setLocalId(readString(in));
+                task.setCreatorUID(readString(in));
+                task.setCreatorDisplayName(readString(in));
+                task.setTitle(readString(in));
+                task.setDescription(readString(in));
+                task.setStatus(readString(in));
+                task.setTaskType(readString(in));
+                task.setPriority(readString(in));
+                task.setOwnershipScope(readString(in));
+                task.setSpaceId(readString(in));
+                task.setDueDateMillis(in.getLong());
+                task.setCreatedAtMillis(in.getLong());
+                task.setCompletedAtMillis(in.getLong());
+                task.setSynced(in.get() != 0);
+                tasks.add(task);
+            }
+            return tasks;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public static void writeSpaces(DataOutputStream out, List<Space> spaces) throws IOException {
+        writeHeader(out, KIND_SPACES, spaces.size());
+        for (Space space : spaces) {
+            writeString(out, space.getSpaceId());
+            writeString(out, space.getSpaceName());
+            writeString(out, space.getInviteCode());
+            List<String> members = space.getMembers();
+            out.writeInt(members != null ? members.size() : -1);
+            if (members != null) {
+                for (String member : members) {
+                    writeString(out, member);
+                }
+            }
+        }
+    }
+
+    public static List<Space> readSpaces(ByteBuffer in) {
+        try {
+            int count = readHeader(in, KIND_SPACES);
+            if (count < 0) return null;
+            List<Space> spaces = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Space space = new Space();
+                space.setSpaceId(readString(in));
+                space.setSpaceName(readString(in));
+                space.setInviteCode(readString(in));
+                int memberCount = in.getInt();
+                if (memberCount >= 0) {
+                    List<String> members = new ArrayList<>(memberCount);
+                    for (int j = 0; j < memberCount; j++) {
+                        members.add(readString(in));
+                    }
+                    space.setMembers(members);
+                }
+                spaces.add(space);
+            }
+            return spaces;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, int kind, int count) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(kind);
+        out.writeInt(count);
+    }
+
+    // Record count, or -1 if the buffer does not hold this kind of snapshot
+    private static int readHeader(ByteBuffer in, int kind) {
+        if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION || in.getInt() != kind) {
+            return -1;
+        }
+        int count = in.getInt();
+        // Every record takes at least one byte, so a larger count means a damaged file
+        return count <= in.remaining() ? count : -1;
+    }
+
+    // Length-prefixed UTF-8; DataOutputStream.writeUTF would cap descriptions at 64 KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        if (length > in.remaining()) throw new BufferUnderflowException();
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
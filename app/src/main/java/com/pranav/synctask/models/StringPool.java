@@ -0,0 +1,27 @@
+package com.pranav.synctask.models;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonical instances of strings that repeat across many tasks, such as spaceId and the
+ * creator's UID and name. Entries are weak, so a value no task uses any more is dropped.
+ */
+final class StringPool {
+    private static final Map<String, WeakReference<String>> pool = new WeakHashMap<>();
+
+    private StringPool() {
+    }
+
+    static synchronized String intern(String value) {
+        if (value == null) return null;
+        WeakReference<String> ref = pool.get(value);
+        String pooled = ref != null ? ref.get() : null;
+        if (pooled == null) {
+            pool.put(value, new WeakReference<>(value));
+            return value;
+        }
+        return pooled;
+    }
+}
@@ -3,33 +3,49 @@ package com.pranav.synctask.models;
 import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.pranav.synctask.utils.DateUtils;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.Date;
 
 public class Task implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     private String id;
     private String creatorUID;
     private String title;
     private String description;
-    private String status;
-    private Date dueDate;
-    private Date createdAt;
-    private String taskType;
+    // Enum-like fields are stored as CodeTable codes and dates as epoch millis
+    // (NO_DATE when unset); the getters still return the Firestore values.
+    private transient byte status = CodeTable.NONE;
+    private long dueDate = NO_DATE;
+    private long createdAt = NO_DATE;
+    // NO_DATE while pending, and for tasks completed before completion times were stored
+    private long completedAt = NO_DATE;
+    // NO_DATE unless the task was read from the archive
+    private long archivedAt = NO_DATE;
+    private transient byte taskType = CodeTable.NONE;
     private String spaceId;
     private String localId;
     private boolean isSynced;
     private String creatorDisplayName;
-    private String priority;
+    private transient byte priority = CodeTable.NONE;
 
     // --- ADDED IN PHASE 2 ---
-    private String ownershipScope;
+    private transient byte ownershipScope = CodeTable.NONE;
+    // Derived from priority, createdAt and the ID, see getSortKey(); null until needed
+    private transient String sortKey;
+    // Values of the coded fields whose CodeTable is full, by UNCODED_* slot; null until one is
+    private transient String[] uncoded;
 
     // --- CONSTANTS ---
     public static final String STATUS_PENDING = "pending";
@@ -43,32 +59,74 @@ public class Task implements Serializable {
     public static final String SCOPE_SHARED = "SHARED";         // We can both edit/complete
     public static final String SCOPE_ASSIGNED = "ASSIGNED";     // I created it, you complete it
 
+    public static final String PRIORITY_LOW = "Low";
+    public static final String PRIORITY_NORMAL = "Normal";
+    public static final String PRIORITY_HIGH = "High";
+
+    // Byte codes of the known values, as returned by the get*Code() methods.
+    // Other values get codes above these, or a negative one if too many turn up; null is CODE_NONE.
+    public static final byte CODE_NONE = CodeTable.NONE;
+    public static final byte STATUS_CODE_PENDING = 0;
+    public static final byte STATUS_CODE_COMPLETED = 1;
+    public static final byte TYPE_CODE_TASK = 0;
+    public static final byte TYPE_CODE_REMINDER = 1;
+    public static final byte TYPE_CODE_UPDATE = 2;
+    public static final byte PRIORITY_CODE_LOW = 0;
+    public static final byte PRIORITY_CODE_NORMAL = 1;
+    public static final byte PRIORITY_CODE_HIGH = 2;
+    public static final byte SCOPE_CODE_INDIVIDUAL = 0;
+    public static final byte SCOPE_CODE_SHARED = 1;
+    public static final byte SCOPE_CODE_ASSIGNED = 2;
+
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    // What EditTaskActivity can change; sortKey and the due fields follow priority and dueDate
+    private static final String[] EDITABLE_FIELDS = {
+            "title", "description", "taskType", "priority", "dueDate", "sortKey", "dueDay", "dueMonth"
+    };
+
+    private static final CodeTable STATUSES = new CodeTable(STATUS_PENDING, STATUS_COMPLETED);
+    private static final CodeTable TYPES = new CodeTable(TYPE_TASK, TYPE_REMINDER, TYPE_UPDATE);
+    private static final CodeTable PRIORITIES = new CodeTable(PRIORITY_LOW, PRIORITY_NORMAL, PRIORITY_HIGH);
+    private static final CodeTable SCOPES = new CodeTable(SCOPE_INDIVIDUAL, SCOPE_SHARED, SCOPE_ASSIGNED);
+    private static final int UNCODED_STATUS = 0;
+    private static final int UNCODED_TYPE = 1;
+    private static final int UNCODED_PRIORITY = 2;
+    private static final int UNCODED_SCOPE = 3;
+
 
     public Task() {
         this.isSynced = true;
         this.localId = UUID.randomUUID().toString();
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-        this.creatorDisplayName = (user != null) ? user.getDisplayName() : "A user";
-        this.priority = "Normal";
-        this.ownershipScope = SCOPE_SHARED; // Default to shared
+        setCreatorDisplayName((user != null) ? user.getDisplayName() : "A user");
+        this.priority = PRIORITY_CODE_NORMAL;
+        this.ownershipScope = SCOPE_CODE_SHARED; // Default to shared
+    }
+
+    // Used by DocumentCodec; every field is filled in from the document, so skip the
+    // UUID and FirebaseAuth lookups of the no-arg constructor
+    Task(String id) {
+        this.id = id;
+        this.isSynced = true;
     }
 
     // This constructor is for local/offline tasks
     public Task(String creatorUID, String title, String description,
                 Timestamp dueDate, String taskType) {
         this.localId = UUID.randomUUID().toString();
-        this.creatorUID = creatorUID;
+        setCreatorUID(creatorUID);
         this.title = title;
         this.description = description;
-        this.status = STATUS_PENDING;
-        this.dueDate = dueDate != null ? dueDate.toDate() : null;
-        this.createdAt = Timestamp.now().toDate();
-        this.taskType = taskType;
+        this.status = STATUS_CODE_PENDING;
+        setDueDate(dueDate);
+        this.createdAt = System.currentTimeMillis();
+        setTaskType(taskType);
         this.isSynced = false; // By default, a new task is not synced
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-        this.creatorDisplayName = (user != null) ? user.getDisplayName() : "A user";
-        this.priority = "Normal";
-        this.ownershipScope = SCOPE_SHARED; // Default to shared
+        setCreatorDisplayName((user != null) ? user.getDisplayName() : "A user");
+        this.priority = PRIORITY_CODE_NORMAL;
+        this.ownershipScope = SCOPE_CODE_SHARED; // Default to shared
     }
 
     // --- Getters and Setters ---
@@ -79,6 +137,7 @@ public class Task implements Serializable {
 
     public void setId(String id) {
         this.id = id;
+        sortKey = null;
     }
 
     public String getCreatorUID() {
@@ -86,7 +145,7 @@ public class Task implements Serializable {
     }
 
     public void setCreatorUID(String creatorUID) {
-        this.creatorUID = creatorUID;
+        this.creatorUID = StringPool.intern(creatorUID);
     }
 
     public String getTitle() {
@@ -106,51 +165,125 @@ public class Task implements Serializable {
     }
 
     public String getStatus() {
-        return status;
+        return decode(STATUSES, UNCODED_STATUS, status);
     }
 
     public void setStatus(String status) {
-        this.status = status;
+        this.status = encode(STATUSES, UNCODED_STATUS, status);
+    }
+
+    private byte encode(CodeTable table, int slot, String value) {
+        byte code = table.encode(value);
+        if (code == CodeTable.UNCODED) {
+            if (uncoded == null) {
+                uncoded = new String[UNCODED_SCOPE + 1];
+            }
+            uncoded[slot] = value;
+        }
+        return code;
+    }
+
+    private String decode(CodeTable table, int slot, byte code) {
+        return code == CodeTable.UNCODED ? uncoded[slot] : table.decode(code);
+    }
+
+    public byte getStatusCode() {
+        return status;
+    }
+
+    public boolean isCompleted() {
+        return status == STATUS_CODE_COMPLETED;
     }
 
+    // Allocates; hot paths should use getDueDateMillis()
     public Timestamp getDueDate() {
-        return dueDate != null ? new Timestamp(dueDate) : null;
+        return dueDate != NO_DATE ? new Timestamp(new Date(dueDate)) : null;
     }
 
     public void setDueDate(Timestamp dueDate) {
-        this.dueDate = dueDate != null ? dueDate.toDate() : null;
+        this.dueDate = dueDate != null ? dueDate.toDate().getTime() : NO_DATE;
     }
 
     public Timestamp getCreatedAt() {
-        return createdAt != null ? new Timestamp(createdAt) : null;
+        return createdAt != NO_DATE ? new Timestamp(new Date(createdAt)) : null;
     }
 
     public void setCreatedAt(Timestamp createdAt) {
-        this.createdAt = createdAt != null ? createdAt.toDate() : null;
+        this.createdAt = createdAt != null ? createdAt.toDate().getTime() : NO_DATE;
+        sortKey = null;
     }
 
     public Date getDueDateAsDate() {
-        return dueDate;
+        return dueDate != NO_DATE ? new Date(dueDate) : null;
     }
 
     public void setDueDateFromDate(Date dueDate) {
-        this.dueDate = dueDate;
+        this.dueDate = dueDate != null ? dueDate.getTime() : NO_DATE;
     }
 
     public Date getCreatedAtAsDate() {
-        return createdAt;
+        return createdAt != NO_DATE ? new Date(createdAt) : null;
     }
 
     public void setCreatedAtFromDate(Date createdAt) {
+        this.createdAt = createdAt != null ? createdAt.getTime() : NO_DATE;
+        sortKey = null;
+    }
+
+    // Used by SnapshotCodec
+    void setDueDateMillis(long dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    void setCreatedAtMillis(long createdAt) {
         this.createdAt = createdAt;
+        sortKey = null;
+    }
+
+    public long getDueDateMillis() {
+        return dueDate;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAt;
+    }
+
+    public Timestamp getCompletedAt() {
+        return completedAt != NO_DATE ? new Timestamp(new Date(completedAt)) : null;
+    }
+
+    public void setCompletedAtFromDate(Date completedAt) {
+        this.completedAt = completedAt != null ? completedAt.getTime() : NO_DATE;
+    }
+
+    public long getCompletedAtMillis() {
+        return completedAt;
+    }
+
+    // Used by SnapshotCodec
+    void setCompletedAtMillis(long completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public void setArchivedAtFromDate(Date archivedAt) {
+        this.archivedAt = archivedAt != null ? archivedAt.getTime() : NO_DATE;
+    }
+
+    // Archived tasks are read-only copies, the live document is gone
+    public boolean isArchived() {
+        return archivedAt != NO_DATE;
     }
 
     public String getTaskType() {
-        return taskType;
+        return decode(TYPES, UNCODED_TYPE, taskType);
     }
 
     public void setTaskType(String taskType) {
-        this.taskType = taskType;
+        this.taskType = encode(TYPES, UNCODED_TYPE, taskType);
+    }
+
+    public byte getTaskTypeCode() {
+        return taskType;
     }
 
     public String getSpaceId() {
@@ -158,7 +291,7 @@ public class Task implements Serializable {
     }
 
     public void setSpaceId(String spaceId) {
-        this.spaceId = spaceId;
+        this.spaceId = StringPool.intern(spaceId);
     }
 
     public String getLocalId() {
@@ -167,6 +300,7 @@ public class Task implements Serializable {
 
     public void setLocalId(String localId) {
         this.localId = localId;
+        sortKey = null;
     }
 
     public boolean isSynced() {
@@ -182,24 +316,54 @@ public class Task implements Serializable {
     }
 
     public void setCreatorDisplayName(String creatorDisplayName) {
-        this.creatorDisplayName = creatorDisplayName;
+        this.creatorDisplayName = StringPool.intern(creatorDisplayName);
     }
 
     public String getPriority() {
-        return priority;
+        return decode(PRIORITIES, UNCODED_PRIORITY, priority);
     }
 
     public void setPriority(String priority) {
-        this.priority = priority;
+        this.priority = encode(PRIORITIES, UNCODED_PRIORITY, priority);
+        sortKey = null;
+    }
+
+    public byte getPriorityCode() {
+        return priority;
+    }
+
+    // Sort rank: High 2, Normal 1, Low 0; missing or unknown priorities count as Normal
+    public int getPriorityRank() {
+        return priority >= PRIORITY_CODE_LOW && priority <= PRIORITY_CODE_HIGH ? priority : PRIORITY_CODE_NORMAL;
+    }
+
+    /**
+     * Key whose string order is the display order: highest priority first, then newest
+     * first, then by ID. It is stored on the document so the listener can order (and page)
+     * by it on the server; the fields are fixed width so plain string comparison works.
+     */
+    public String getSortKey() {
+        if (sortKey == null) {
+            String key = id != null ? id : localId;
+            // Missing dates sort last, as the largest inverted value
+            long invertedCreatedAt = createdAt == NO_DATE ? Long.MAX_VALUE : Long.MAX_VALUE - Math.max(createdAt, 0);
+            sortKey = (PRIORITY_CODE_HIGH - getPriorityRank()) + String.format(Locale.ROOT, "%019d", invertedCreatedAt)
+                    + (key != null ? key : "");
+        }
+        return sortKey;
     }
 
     // --- ADDED IN PHASE 2 ---
     public String getOwnershipScope() {
-        return ownershipScope;
+        return decode(SCOPES, UNCODED_SCOPE, ownershipScope);
     }
 
     public void setOwnershipScope(String ownershipScope) {
-        this.ownershipScope = ownershipScope;
+        this.ownershipScope = encode(SCOPES, UNCODED_SCOPE, ownershipScope);
+    }
+
+    public byte getOwnershipScopeCode() {
+        return ownershipScope;
     }
 
 
@@ -208,14 +372,77 @@ public class Task implements Serializable {
         map.put("creatorUID", creatorUID);
         map.put("title", title);
         map.put("description", description);
-        map.put("status", status);
+        map.put("status", getStatus());
         map.put("dueDate", getDueDate());
         map.put("createdAt", getCreatedAt());
-        map.put("taskType", taskType);
+        map.put("completedAt", getCompletedAt());
+        map.put("taskType", getTaskType());
         map.put("spaceId", spaceId);
         map.put("creatorDisplayName", creatorDisplayName);
-        map.put("priority", priority);
-        map.put("ownershipScope", ownershipScope); // --- ADDED IN PHASE 2 ---
+        map.put("priority", getPriority());
+        map.put("ownershipScope", getOwnershipScope()); // --- ADDED IN PHASE 2 ---
+        map.put("localId", localId); // Also the document ID of tasks created by this app
+        map.put("sortKey", getSortKey());
+        // The picked day and its month, the same for every time zone, for the Today and This Month queries
+        map.put("dueDay", dueDate != NO_DATE ? DateUtils.dueDay(dueDate) : null);
+        map.put("dueMonth", dueDate != NO_DATE ? (long) DateUtils.dueMonth(dueDate) : null);
         return map;
     }
-}
\ No newline at end of file
+
+    // Codes of appended values are process-local, so the coded fields travel as strings
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(getStatus());
+        out.writeObject(getTaskType());
+        out.writeObject(getPriority());
+        out.writeObject(getOwnershipScope());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        setStatus((String) in.readObject());
+        setTaskType((String) in.readObject());
+        setPriority((String) in.readObject());
+        setOwnershipScope((String) in.readObject());
+        setCreatorUID(creatorUID);
+        setSpaceId(spaceId);
+        setCreatorDisplayName(creatorDisplayName);
+    }
+
+    /**
+     * Returns the fields of this task whose values differ from {@code original}, keyed and
+     * encoded as in {@link #toMap()}. This is exactly what an edit writes to Firestore.
+     */
+    public Map<String, Object> diff(Task original) {
+        return diff(original.toMap());
+    }
+
+    /**
+     * Returns the fields of this task whose values differ from {@code before}, a {@link #toMap()}
+     * taken earlier, e.g. when the edit screen opened. Fields a partner changed since then are
+     * left out, where a diff against their newer copy would write the old values back.
+     */
+    public Map<String, Object> diff(Map<String, Object> before) {
+        Map<String, Object> changes = new HashMap<>();
+        for (Map.Entry<String, Object> field : toMap().entrySet()) {
+            if (!Objects.equals(field.getValue(), before.get(field.getKey()))) {
+                changes.put(field.getKey(), field.getValue());
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * The fields the edit screen can change and the ones derived from them, keyed and encoded
+     * as in {@link #toMap()}. Written instead of a diff when no earlier version is known, so
+     * an edit never overwrites the status or completion a partner set in the meantime.
+     */
+    public Map<String, Object> editableFields() {
+        Map<String, Object> all = toMap();
+        Map<String, Object> fields = new HashMap<>();
+        for (String field : EDITABLE_FIELDS) {
+            fields.put(field, all.get(field));
+        }
+        return fields;
+    }
+}
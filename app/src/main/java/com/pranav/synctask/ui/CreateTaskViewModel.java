@@ -1,6 +1,5 @@
 package com.pranav.synctask.ui;
 
-import android.content.Context;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
@@ -20,8 +19,8 @@ public class CreateTaskViewModel extends ViewModel {
     }
 
     // The task object passed in already has the spaceId
-    public LiveData<Result<Void>> createTask(Task task, Context context) {
-        taskRepository.createTask(task, context);
+    public LiveData<Result<Void>> createTask(Task task) {
+        taskRepository.createTask(task);
         return new MutableLiveData<>(new Result.Success<>(null));
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.pranav.synctask.ui;
 
+import android.content.Context;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
@@ -27,6 +28,11 @@ public class DashboardViewModel extends ViewModel {
     public DashboardViewModel() {
         this.userRepository = UserRepository.getInstance();
         this.currentUid = FirebaseAuth.getInstance().getUid();
+        // Show the spaces from last time until the user listener has loaded them again
+        List<Space> savedSpaces = userRepository.getSavedSpaces();
+        if (savedSpaces != null) {
+            spacesLiveData.setValue(new Result.Success<>(savedSpaces));
+        }
     }
 
     public LiveData<Result<User>> getUserLiveData() {
@@ -49,6 +55,14 @@ public class DashboardViewModel extends ViewModel {
     public LiveData<Result<Void>> getDeleteSpaceResult() {
         return deleteSpaceResult;
     }
+
+    public LiveData<Integer> getSpaceDeletionProgress() {
+        return userRepository.getSpaceDeletionProgress();
+    }
+
+    public void resumeSpaceDeletions(Context context, String userUID) {
+        userRepository.resumeSpaceDeletions(context, userUID);
+    }
     // --- END NEW ---
 
     public void attachUserListener(String uid) {
@@ -66,15 +80,15 @@ public class DashboardViewModel extends ViewModel {
     }
 
     // --- NEW ---
-    public void leaveSpace(String spaceId) {
+    public void leaveSpace(String spaceId, Context context) {
         if (currentUid != null) {
-            userRepository.leaveSpace(spaceId, currentUid).observeForever(leaveSpaceResult::setValue);
+            userRepository.leaveSpace(spaceId, currentUid, context).observeForever(leaveSpaceResult::setValue);
         }
     }
 
-    public void deleteSpace(String spaceId) {
+    public void deleteSpace(String spaceId, Context context) {
         if (currentUid != null) {
-            userRepository.deleteSpace(spaceId, currentUid).observeForever(deleteSpaceResult::setValue);
+            userRepository.deleteSpace(spaceId, currentUid, context).observeForever(deleteSpaceResult::setValue);
         }
     }
     // --- END NEW ---
@@ -0,0 +1,90 @@
+package com.pranav.synctask.ui.viewmodels;
+
+import android.content.Context;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+import androidx.lifecycle.ViewModel;
+import com.pranav.synctask.adapters.TaskItemMapper;
+import com.pranav.synctask.data.ArchivePage;
+import com.pranav.synctask.data.Result;
+import com.pranav.synctask.data.TaskRepository;
+import com.pranav.synctask.models.Task;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Archived tasks of one space, loaded a page at a time as the list is scrolled. */
+public class ArchiveViewModel extends ViewModel {
+    private final TaskRepository taskRepository;
+    // Row models of each page are built here before the page is shown
+    private final ExecutorService mappingExecutor = Executors.newSingleThreadExecutor();
+    private final MutableLiveData<Result<List<Task>>> archivedTasks = new MutableLiveData<>();
+    private final List<Task> loaded = new ArrayList<>();
+    private volatile TaskItemMapper itemMapper;
+    private ArchivePage lastPage;
+    private boolean loading;
+
+    public ArchiveViewModel() {
+        this.taskRepository = TaskRepository.getInstance();
+    }
+
+    // Every page loaded so far, in one list
+    public LiveData<Result<List<Task>>> getArchivedTasks() {
+        return archivedTasks;
+    }
+
+    public TaskItemMapper getItemMapper(Context context, String currentUserId) {
+        if (itemMapper == null) {
+            itemMapper = new TaskItemMapper(context.getApplicationContext(), currentUserId, mappingExecutor);
+        }
+        return itemMapper;
+    }
+
+    public boolean hasMore() {
+        return lastPage == null || lastPage.hasMore();
+    }
+
+    // Loads the next page unless one is loading or the last one was reached
+    public void loadMore(String spaceId) {
+        if (loading || !hasMore()) return;
+        loading = true;
+        archivedTasks.setValue(new Result.Loading<>());
+        LiveData<Result<ArchivePage>> page = taskRepository.getArchivedTasks(spaceId, lastPage);
+        page.observeForever(new Observer<Result<ArchivePage>>() {
+            @Override
+            public void onChanged(Result<ArchivePage> result) {
+                if (result instanceof Result.Loading) return;
+                page.removeObserver(this);
+                if (result instanceof Result.Success) {
+                    onPage(((Result.Success<ArchivePage>) result).data);
+                } else if (result instanceof Result.Error) {
+                    loading = false;
+                    archivedTasks.setValue(new Result.Error<>(((Result.Error<ArchivePage>) result).exception));
+                }
+            }
+        });
+    }
+
+    private void onPage(ArchivePage page) {
+        lastPage = page;
+        loaded.addAll(page.tasks);
+        List<Task> tasks = new ArrayList<>(loaded);
+        mappingExecutor.execute(() -> {
+            TaskItemMapper mapper = itemMapper;
+            if (mapper != null) {
+                mapper.setCurrentTasks(tasks);
+                mapper.prefetch(page.tasks);
+            }
+            archivedTasks.postValue(new Result.Success<>(tasks));
+        });
+        loading = false;
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mappingExecutor.shutdown();
+    }
+}
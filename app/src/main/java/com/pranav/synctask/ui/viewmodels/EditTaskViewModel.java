@@ -1,20 +1,31 @@
 package com.pranav.synctask.ui.viewmodels;
 
+import android.content.Context;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import com.pranav.synctask.data.Result;
 import com.pranav.synctask.data.TaskRepository;
 import com.pranav.synctask.models.Task;
+import java.util.Map;
 
 public class EditTaskViewModel extends ViewModel {
     private final TaskRepository taskRepository;
+    // The task as the editor opened it; kept across configuration changes
+    private Map<String, Object> openedFields;
 
     public EditTaskViewModel() {
         this.taskRepository = TaskRepository.getInstance();
     }
 
-    public LiveData<Result<Void>> updateTask(Task task) {
-        return taskRepository.updateTask(task);
+    // Only the first call counts, later ones come from the activity being recreated
+    public void setOpenedTask(Task task) {
+        if (openedFields == null) {
+            openedFields = task.toMap();
+        }
+    }
+
+    public LiveData<Result<Void>> updateTask(Task task, Context context) {
+        return taskRepository.updateTask(task, openedFields, context);
     }
 }
\ No newline at end of file
@@ -1,57 +1,136 @@
 package com.pranav.synctask.ui.viewmodels;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
+import com.pranav.synctask.adapters.TaskItemMapper;
 import com.pranav.synctask.data.Result;
+import com.pranav.synctask.data.TaskChange;
+import com.pranav.synctask.data.TaskIndex;
 import com.pranav.synctask.data.TaskRepository;
+import com.pranav.synctask.data.TaskSearch;
+import com.pranav.synctask.data.TaskSlice;
 import com.pranav.synctask.data.UserRepository;
 import com.pranav.synctask.models.Task;
 import com.pranav.synctask.models.User;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TasksViewModel extends ViewModel {
+    // Typing faster than this only runs the search for the last keystroke
+    private static final long SEARCH_DEBOUNCE_MS = 150;
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final MutableLiveData<String> searchQuery = new MutableLiveData<>("");
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable runSearch = () -> taskRepository.searchTasks(searchQuery.getValue());
+    private String subscribedSpaceId;
+    // Row models are built here, off the main thread, before an index reaches the tabs
+    private final ExecutorService mappingExecutor = Executors.newSingleThreadExecutor();
+    private final MediatorLiveData<Result<TaskIndex>> mappedTasks = new MediatorLiveData<>();
+    // Mapped indexes are handed back one by one; postValue would drop all but the latest
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile TaskItemMapper itemMapper;
 
     public TasksViewModel() {
         this.taskRepository = TaskRepository.getInstance();
         this.userRepository = UserRepository.getInstance();
+        mappedTasks.addSource(taskRepository.getTasks(), result -> mappingExecutor.execute(() -> {
+            TaskItemMapper mapper = itemMapper;
+            if (mapper != null && result instanceof Result.Success) {
+                TaskIndex index = ((Result.Success<TaskIndex>) result).data;
+                mapper.setCurrentTasks(index.getAll());
+                if (index.getChanges() != null) {
+                    List<Task> changed = new ArrayList<>(index.getChanges().size());
+                    for (TaskChange change : index.getChanges()) {
+                        if (change.after != null) {
+                            changed.add(change.after);
+                        }
+                    }
+                    mapper.prefetch(changed);
+                } else {
+                    mapper.prefetch(index.getAll());
+                }
+            }
+            mainHandler.post(() -> mappedTasks.setValue(result));
+        }));
     }
 
-    public LiveData<Result<List<Task>>> getTasksResult() {
-        return taskRepository.getTasks();
+    public LiveData<Result<TaskIndex>> getTasksResult() {
+        return mappedTasks;
+    }
+
+    // One mapper for all the tabs, so a row model built for one is reused by the others
+    public TaskItemMapper getItemMapper(Context context, String currentUserId) {
+        if (itemMapper == null) {
+            itemMapper = new TaskItemMapper(context.getApplicationContext(), currentUserId, mappingExecutor);
+        }
+        return itemMapper;
     }
 
     public LiveData<String> getSearchQuery() {
         return searchQuery;
     }
 
+    public LiveData<TaskSearch> getSearchResults() {
+        return taskRepository.getSearchResults();
+    }
+
     public void setSearchQuery(String query) {
         searchQuery.setValue(query);
+        searchHandler.removeCallbacks(runSearch);
+        if (query == null || query.isEmpty()) {
+            runSearch.run(); // Clearing the search should not wait
+        } else {
+            searchHandler.postDelayed(runSearch, SEARCH_DEBOUNCE_MS);
+        }
     }
 
-    public void loadTasks(String spaceId) {
+    public void loadTasks(String spaceId, Context context) {
+        taskRepository.backfillDerivedFields(spaceId, context);
+        taskRepository.archiveCompletedTasks(spaceId, context);
+        if (spaceId.equals(subscribedSpaceId)) {
+            // Already subscribed, e.g. onStart after backgrounding; just make sure it is shown
+            taskRepository.selectSpace(spaceId);
+            return;
+        }
+        if (subscribedSpaceId != null) {
+            taskRepository.releaseTasksListener(subscribedSpaceId);
+        }
+        subscribedSpaceId = spaceId;
         taskRepository.attachTasksListener(spaceId);
     }
 
+    public void onTasksVisible(List<Task> visible, boolean atEnd) {
+        taskRepository.onTasksVisible(visible, atEnd);
+    }
+
+    public void showTab(TaskSlice slice) {
+        taskRepository.showTab(slice);
+    }
+
     // --- NEW METHOD ---
     public void refreshTasks() {
-        // This will tell the repository to re-trigger the listener
-        // with the spaceId it already has.
+        // The listener stays attached; this only checks in with the server
         taskRepository.refreshTasks();
     }
     // --- END NEW METHOD ---
 
-    public void syncLocalTasks(Context context) {
-        taskRepository.syncLocalTasks(context);
-    }
-
     @Override
     protected void onCleared() {
         super.onCleared();
-        taskRepository.removeTasksListener();
+        searchHandler.removeCallbacks(runSearch);
+        taskRepository.searchTasks("");
+        mappingExecutor.shutdown();
+        if (subscribedSpaceId != null) {
+            // The listener lingers for a while in case the space is reopened
+            taskRepository.releaseTasksListener(subscribedSpaceId);
+        }
     }
 }
\ No newline at end of file
@@ -7,7 +7,8 @@ import java.util.Date;
 import java.util.Locale;
 
 public class DateUtils {
-    private static final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+    public static final String DATE_PATTERN = "MMM dd, yyyy";
+    private static final SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_PATTERN, Locale.getDefault());
     private static final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
 
     public static String formatDate(Timestamp timestamp) {
@@ -15,6 +16,10 @@ public class DateUtils {
         return dateFormat.format(timestamp.toDate());
     }
 
+    public static String formatDate(long millis) {
+        return dateFormat.format(new Date(millis));
+    }
+
     public static String formatTime(Timestamp timestamp) {
         if (timestamp == null) return "";
         return timeFormat.format(timestamp.toDate());
@@ -41,4 +46,50 @@ public class DateUtils {
         return today.get(Calendar.YEAR) == taskDate.get(Calendar.YEAR) &&
                 today.get(Calendar.MONTH) == taskDate.get(Calendar.MONTH);
     }
-}
\ No newline at end of file
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    // Days since 1970-01-01 in the calendar's time zone, so tasks due on the same local day share a key
+    public static long epochDay(Calendar calendar) {
+        long localMillis = calendar.getTimeInMillis()
+                + calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET);
+        return Math.floorDiv(localMillis, MILLIS_PER_DAY);
+    }
+
+    public static int monthKey(Calendar calendar) {
+        return calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+    }
+
+    // The day a due date stands for, as an epoch day. The date pickers store midnight UTC of
+    // the picked day, so its UTC date is that day for every reader whatever their time zone,
+    // and it compares directly with the reader's todayEpochDay().
+    public static long dueDay(long dueDateMillis) {
+        return Math.floorDiv(dueDateMillis, MILLIS_PER_DAY);
+    }
+
+    // Month key of the picked day, comparable with currentMonthKey()
+    public static int dueMonth(long dueDateMillis) {
+        return monthKeyOfEpochDay(dueDay(dueDateMillis));
+    }
+
+    // Proleptic Gregorian year and month of an epoch day, without a Calendar per call
+    static int monthKeyOfEpochDay(long epochDay) {
+        long shifted = epochDay + 719468; // Days since 0000-03-01
+        long era = Math.floorDiv(shifted, 146097);
+        long dayOfEra = shifted - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long marchMonth = (5 * dayOfYear + 2) / 153; // 0 is March
+        long month = marchMonth < 10 ? marchMonth + 2 : marchMonth - 10; // 0 is January
+        long year = yearOfEra + era * 400 + (month < 2 ? 1 : 0);
+        return (int) (year * 12 + month);
+    }
+
+    public static long todayEpochDay() {
+        return epochDay(Calendar.getInstance());
+    }
+
+    public static int currentMonthKey() {
+        return monthKey(Calendar.getInstance());
+    }
+}
@@ -4,39 +4,59 @@ import android.util.Log;
 
 import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreException;
 import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.Source;
 import com.google.firebase.firestore.WriteBatch;
-import com.google.firebase.functions.FirebaseFunctions;
+import com.pranav.synctask.models.DocumentCodec;
 import com.pranav.synctask.models.Space;
 import com.pranav.synctask.models.Task;
 import com.pranav.synctask.models.User;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 public class FirebaseHelper {
     private static final String TAG = "FirebaseHelper";
     private final FirebaseFirestore db;
-    private final FirebaseFunctions functions;
 
     private static final String USERS_COLLECTION = "users";
     private static final String TASKS_COLLECTION = "tasks";
     private static final String SPACES_COLLECTION = "spaces"; // ADDED
+    // Completed tasks moved out of the live collection, see archiveCompletedTasks()
+    private static final String ARCHIVE_COLLECTION = "archivedTasks";
+    // Firestore rejects batches with more than 500 writes
+    public static final int MAX_BATCH_WRITES = 500;
+    // Completed tasks read per archival page; each one that qualifies runs its own transaction
+    private static final int ARCHIVE_PAGE_SIZE = 100;
+    // Fields Task.toMap() derives from other fields, see getTasksDue() and backfillDerivedFields()
+    public static final String DUE_DAY_FIELD = "dueDay";
+    public static final String DUE_MONTH_FIELD = "dueMonth";
+    private static final String[] DERIVED_FIELDS = {"sortKey", DUE_DAY_FIELD, DUE_MONTH_FIELD};
+    // Delete batches of a bulk delete committed at once; the next pages are read meanwhile
+    private static final int MAX_PARALLEL_DELETE_BATCHES = 4;
 
     public FirebaseHelper() {
         db = FirebaseFirestore.getInstance();
-        functions = FirebaseFunctions.getInstance();
     }
 
     // Callbacks
@@ -50,12 +70,58 @@ public class FirebaseHelper {
         void onError(Exception e);
     }
 
+    // Delivers only the documents that changed since the previous snapshot
+    public interface TaskChangesCallback {
+        void onChanges(List<Task> upserted, List<String> removedIds);
+        void onError(Exception e);
+    }
+
+    // Like TaskChangesCallback, plus the page's last document and size for paging on from it
+    public interface TaskPageCallback {
+        void onPage(List<Task> upserted, List<String> removedIds, DocumentSnapshot last, int size);
+        void onError(Exception e);
+    }
+
+    public interface BackfillCallback {
+        void onComplete(int updated);
+        void onError(Exception e);
+    }
+
+    public interface TaskCountCallback {
+        void onCounted(long total, long completed);
+        void onError(Exception e);
+    }
+
+    public interface ArchiveCallback {
+        void onComplete(int archived);
+        void onError(Exception e);
+    }
+
+    // One page of archived tasks; last is the cursor for the next page, null if there is none
+    public interface ArchivePageCallback {
+        void onPage(List<Task> tasks, DocumentSnapshot last);
+        void onError(Exception e);
+    }
+
     // ADDED
     public interface SpaceCallback {
         void onSuccess(Space space);
         void onError(Exception e);
     }
 
+    // Leaving or deleting a space; progress counts the tasks deleted so far
+    public interface SpaceDeletionCallback {
+        void onProgress(int tasksDeleted);
+        void onSuccess();
+        void onError(Exception e);
+    }
+
+    public interface BulkDeleteCallback {
+        void onProgress(int deleted);
+        void onComplete(int deleted);
+        void onError(Exception e);
+    }
+
     // ADDED
     public interface SpacesCallback {
         void onSuccess(List<Space> spaces);
@@ -137,7 +203,7 @@ public class FirebaseHelper {
                 .get()
                 .addOnSuccessListener(document -> {
                     if (document.exists()) {
-                        User user = document.toObject(User.class);
+                        User user = DocumentCodec.decodeUser(document);
                         callback.onSuccess(user);
                     } else {
                         callback.onError(new Exception("User not found"));
@@ -157,7 +223,7 @@ public class FirebaseHelper {
                     }
                     if (snapshot != null && snapshot.exists())
                     {
-                        User user = snapshot.toObject(User.class);
+                        User user = DocumentCodec.decodeUser(snapshot);
                         callback.onSuccess(user);
                     } else {
                         Log.d(TAG, "Current data: null");
@@ -205,7 +271,7 @@ public class FirebaseHelper {
                     DocumentSnapshot
                             spaceDoc = querySnapshot.getDocuments().get(0);
                     String spaceId = spaceDoc.getId();
-                    Space space = spaceDoc.toObject(Space.class);
+                    Space space = DocumentCodec.decodeSpace(spaceDoc);
 
                     if (space.getMembers().contains(userUID)) {
                         callback.onError(new Exception("You are already in this space."));
@@ -242,7 +308,7 @@ public class FirebaseHelper {
             for (Object doc : list) {
                 DocumentSnapshot snapshot = (DocumentSnapshot) doc;
                 if (snapshot.exists()) {
-                    spaces.add(snapshot.toObject(Space.class));
+                    spaces.add(DocumentCodec.decodeSpace(snapshot));
                 }
             }
             callback.onSuccess(spaces);
@@ -251,62 +317,331 @@ public class FirebaseHelper {
 
     // --- MODIFIED TASK METHODS ---
 
+    // Succeeds once the server has the task; offline the write waits in the local cache
     public void createTask(Task task, TasksCallback callback) {
+        // The localId doubles as the document ID, so retrying a create never duplicates it
         db.collection(TASKS_COLLECTION)
-                .add(task.toMap()) // task.toMap() now includes spaceId
-                .addOnSuccessListener(documentReference -> {
-                    String taskId = documentReference.getId();
-                    Log.d(TAG, "Task created with ID: " + taskId);
+                .document(task.getLocalId())
+                .set(task.toMap()) // task.toMap() now includes spaceId
+                .addOnSuccessListener(aVoid -> {
+                    Log.d(TAG, "Task created with ID: " + task.getLocalId());
                     // TODO: Re-implement notification logic for space
                     callback.onSuccess(null);
                 })
                 .addOnFailureListener(callback::onError);
     }
 
-    public ListenerRegistration getTasks(String spaceId, TasksCallback callback) {
+    // Callbacks run on the given executor so decoding stays off the main thread.
+    // Metadata changes are included so a task is re-delivered once its pending write lands.
+    public ListenerRegistration getTasks(String spaceId, Executor executor, TaskChangesCallback callback) {
+        return listenToTasks(tasksQuery(spaceId), executor, new TaskPageCallback() {
+            @Override
+            public void onPage(List<Task> upserted, List<String> removedIds, DocumentSnapshot last, int size) {
+                callback.onChanges(upserted, removedIds);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    // One page of the space's tasks in listener order: the documents after startAfter (from
+    // the first one if null) up to and including endAt, or at most limit of them if endAt is null
+    public ListenerRegistration getTaskPage(String spaceId, DocumentSnapshot startAfter, DocumentSnapshot endAt,
+                                            int limit, Executor executor, TaskPageCallback callback) {
+        Query query = tasksQuery(spaceId);
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
+        }
+        query = endAt != null ? query.endAt(endAt) : query.limit(limit);
+        return listenToTasks(query, executor, callback);
+    }
+
+    // The space's tasks whose dueDay or dueMonth equals value, i.e. one tab's worth. Equality
+    // filters only, so Firestore serves it from single-field indexes without a composite one.
+    public ListenerRegistration getTasksDue(String spaceId, String field, long value, Executor executor,
+                                            TaskChangesCallback callback) {
+        Query query = db.collection(TASKS_COLLECTION)
+                .whereEqualTo("spaceId", spaceId)
+                .whereEqualTo(field, value);
+        return listenToTasks(query, executor, new TaskPageCallback() {
+            @Override
+            public void onPage(List<Task> upserted, List<String> removedIds, DocumentSnapshot last, int size) {
+                callback.onChanges(upserted, removedIds);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    // In display order, so pages follow what the list shows. Needs the (spaceId, sortKey)
+    // composite index from firestore.indexes.json. orderBy() leaves out documents without a
+    // sortKey: ones written before it existed, and ones still written by older app versions
+    // during the migration. backfillDerivedFields() gives them one each time an up-to-date
+    // member opens the space, so a task from an old client shows up from that point on.
+    private Query tasksQuery(String spaceId) {
         return db.collection(TASKS_COLLECTION)
                 .whereEqualTo("spaceId", spaceId) // CHANGED QUERY
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .addSnapshotListener((value, error) -> {
-                    if (error != null) {
-                        Log.w(TAG, "Listen failed.", error);
-                        callback.onError(error);
-                        return;
+                .orderBy("sortKey");
+    }
+
+    // Writes the sortKey, dueDay and dueMonth of every task in the space created at or after
+    // createdSinceMillis (all of them if 0) that lacks them or has stale ones. Pages through
+    // the space by createdAt, one batch per page, so it also reaches tasks the sortKey query
+    // cannot see yet. Needs the (spaceId, createdAt desc) composite index.
+    public void backfillDerivedFields(String spaceId, long createdSinceMillis, BackfillCallback callback) {
+        backfillDerivedFieldPage(spaceId, createdSinceMillis, null, 0, callback);
+    }
+
+    private void backfillDerivedFieldPage(String spaceId, long createdSinceMillis, DocumentSnapshot startAfter,
+                                          int updated, BackfillCallback callback) {
+        Query query = db.collection(TASKS_COLLECTION)
+                .whereEqualTo("spaceId", spaceId);
+        if (createdSinceMillis > 0) {
+            query = query.whereGreaterThanOrEqualTo("createdAt", new Timestamp(new Date(createdSinceMillis)));
+        }
+        query = query.orderBy("createdAt", Query.Direction.DESCENDING)
+                .limit(MAX_BATCH_WRITES);
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
+        }
+        query.get().addOnSuccessListener(querySnapshot -> {
+            List<DocumentSnapshot> docs = querySnapshot.getDocuments();
+            WriteBatch batch = db.batch();
+            int writes = 0;
+            for (DocumentSnapshot doc : docs) {
+                Task task = DocumentCodec.decodeTask(doc);
+                if (task == null) continue;
+                Map<String, Object> fields = task.toMap();
+                Map<String, Object> stale = new HashMap<>();
+                for (String field : DERIVED_FIELDS) {
+                    if (!Objects.equals(fields.get(field), doc.get(field))) {
+                        stale.put(field, fields.get(field));
                     }
+                }
+                if (!stale.isEmpty()) {
+                    batch.update(doc.getReference(), stale);
+                    writes++;
+                }
+            }
+            int total = updated + writes;
+            Runnable next = () -> {
+                if (docs.size() < MAX_BATCH_WRITES) {
+                    Log.d(TAG, "Backfilled derived fields of " + total + " tasks in space " + spaceId);
+                    callback.onComplete(total);
+                } else {
+                    backfillDerivedFieldPage(spaceId, createdSinceMillis, docs.get(docs.size() - 1), total, callback);
+                }
+            };
+            if (writes == 0) {
+                next.run();
+            } else {
+                batch.commit()
+                        .addOnSuccessListener(aVoid -> next.run())
+                        .addOnFailureListener(callback::onError);
+            }
+        }).addOnFailureListener(callback::onError);
+    }
+
+    // Counted on the server, so the numbers cover the whole space rather than the pages the
+    // paged listener holds. Equality filters only, served without a composite index.
+    public void countTasks(String spaceId, TaskCountCallback callback) {
+        Query tasks = db.collection(TASKS_COLLECTION).whereEqualTo("spaceId", spaceId);
+        com.google.android.gms.tasks.Task<AggregateQuerySnapshot> total = tasks.count().get(AggregateSource.SERVER);
+        com.google.android.gms.tasks.Task<AggregateQuerySnapshot> completed = tasks
+                .whereEqualTo("status", Task.STATUS_COMPLETED)
+                .count()
+                .get(AggregateSource.SERVER);
+        Tasks.whenAllSuccess(total, completed)
+                .addOnSuccessListener(results -> callback.onCounted(total.getResult().getCount(),
+                        completed.getResult().getCount()))
+                .addOnFailureListener(callback::onError);
+    }
+
+    /**
+     * Moves the space's tasks completed before cutoffMillis to the archive collection, so the
+     * live listener no longer carries them. Each document is re-read in its own transaction
+     * and copied with an archivedAt time and deleted from tasks only if it still qualifies.
+     * Completed tasks without a completion time get one now and are archived once that is
+     * old enough.
+     */
+    public void archiveCompletedTasks(String spaceId, long cutoffMillis, ArchiveCallback callback) {
+        archiveCompletedPage(spaceId, cutoffMillis, null, 0, callback);
+    }
+
+    private void archiveCompletedPage(String spaceId, long cutoffMillis, DocumentSnapshot startAfter, int archived,
+                                      ArchiveCallback callback) {
+        // Equality filters only, served without a composite index
+        Query query = db.collection(TASKS_COLLECTION)
+                .whereEqualTo("spaceId", spaceId)
+                .whereEqualTo("status", Task.STATUS_COMPLETED)
+                .orderBy(FieldPath.documentId())
+                .limit(ARCHIVE_PAGE_SIZE);
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
+        }
+        query.get().addOnSuccessListener(querySnapshot -> {
+            List<DocumentSnapshot> docs = querySnapshot.getDocuments();
+            List<com.google.android.gms.tasks.Task<Boolean>> moves = new ArrayList<>();
+            for (DocumentSnapshot doc : docs) {
+                Date completedAt = doc.getDate("completedAt");
+                if (completedAt == null || completedAt.getTime() < cutoffMillis) {
+                    moves.add(archiveIfStillCompleted(doc.getReference(), cutoffMillis));
+                }
+            }
+            Tasks.<Boolean>whenAllSuccess(moves).addOnSuccessListener(results -> {
+                int total = archived;
+                for (Boolean moved : results) {
+                    if (moved) total++;
+                }
+                if (docs.size() < ARCHIVE_PAGE_SIZE) {
+                    Log.d(TAG, "Archived " + total + " tasks in space " + spaceId);
+                    callback.onComplete(total);
+                } else {
+                    archiveCompletedPage(spaceId, cutoffMillis, docs.get(docs.size() - 1), total, callback);
+                }
+            }).addOnFailureListener(callback::onError);
+        }).addOnFailureListener(callback::onError);
+    }
 
-                    if (value != null) {
-                        List<Task> tasks = value.toObjects(Task.class);
-                        for (int i = 0; i < tasks.size(); i++) {
-                            tasks.get(i).setId(value.getDocuments().get(i).getId());
+    // The page read above may be stale by now: a partner can have un-completed or edited the
+    // task since. Re-reading it in the transaction leaves such a task in place rather than
+    // deleting their version and archiving the old one. Resolves to whether it was moved.
+    private com.google.android.gms.tasks.Task<Boolean> archiveIfStillCompleted(DocumentReference taskRef,
+                                                                              long cutoffMillis) {
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot doc = transaction.get(taskRef);
+            Map<String, Object> data = doc.getData();
+            if (data == null || !Task.STATUS_COMPLETED.equals(doc.getString("status"))) {
+                return false;
+            }
+            Date completedAt = doc.getDate("completedAt");
+            if (completedAt == null) {
+                transaction.update(taskRef, "completedAt", FieldValue.serverTimestamp());
+                return false;
+            }
+            if (completedAt.getTime() >= cutoffMillis) {
+                return false;
+            }
+            Map<String, Object> archivedData = new HashMap<>(data);
+            archivedData.put("archivedAt", FieldValue.serverTimestamp());
+            transaction.set(db.collection(ARCHIVE_COLLECTION).document(taskRef.getId()), archivedData);
+            transaction.delete(taskRef);
+            return true;
+        });
+    }
+
+    // Archived tasks of the space, most recently completed first, read once rather than
+    // listened to. Needs the (spaceId, completedAt desc) composite index on the archive.
+    public void getArchivedTaskPage(String spaceId, DocumentSnapshot startAfter, int limit,
+                                    ArchivePageCallback callback) {
+        Query query = db.collection(ARCHIVE_COLLECTION)
+                .whereEqualTo("spaceId", spaceId)
+                .orderBy("completedAt", Query.Direction.DESCENDING)
+                .limit(limit);
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
+        }
+        query.get().addOnSuccessListener(querySnapshot -> {
+            List<Task> tasks = new ArrayList<>();
+            List<DocumentSnapshot> docs = querySnapshot.getDocuments();
+            for (DocumentSnapshot doc : docs) {
+                Task task = DocumentCodec.decodeTask(doc);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+            callback.onPage(tasks, docs.size() < limit ? null : docs.get(docs.size() - 1));
+        }).addOnFailureListener(e -> {
+            Log.w(TAG, "Error loading archived tasks", e);
+            callback.onError(e);
+        });
+    }
+
+    private ListenerRegistration listenToTasks(Query query, Executor executor, TaskPageCallback callback) {
+        boolean[] delivered = {false};
+        return query.addSnapshotListener(executor, MetadataChanges.INCLUDE, (value, error) -> {
+            if (error != null) {
+                Log.w(TAG, "Listen failed.", error);
+                callback.onError(error);
+                return;
+            }
+
+            if (value != null) {
+                // Only decode the documents that were added or modified,
+                // unchanged documents keep their previously decoded Task.
+                List<Task> upserted = new ArrayList<>();
+                List<String> removedIds = new ArrayList<>();
+                List<DocumentChange> changes = value.getDocumentChanges(MetadataChanges.INCLUDE);
+                // Snapshots that only flip isFromCache carry nothing to merge
+                if (changes.isEmpty() && delivered[0]) return;
+                delivered[0] = true;
+                for (DocumentChange change : changes) {
+                    DocumentSnapshot doc = change.getDocument();
+                    if (change.getType() == DocumentChange.Type.REMOVED) {
+                        removedIds.add(doc.getId());
+                    } else {
+                        Task task = DocumentCodec.decodeTask(doc);
+                        if (task != null) {
+                            upserted.add(task);
                         }
-                        callback.onSuccess(tasks);
                     }
-                });
+                }
+                List<DocumentSnapshot> docs = value.getDocuments();
+                callback.onPage(upserted, removedIds, docs.isEmpty() ? null : docs.get(docs.size() - 1), docs.size());
+            }
+        });
     }
 
-    public void updateTaskStatus(String taskId, String status) {
+    // One-document server read, used to confirm connectivity without re-listening
+    public void checkTasksOnServer(String spaceId, TasksCallback callback) {
+        tasksQuery(spaceId)
+                .limit(1)
+                .get(Source.SERVER)
+                .addOnSuccessListener(querySnapshot -> callback.onSuccess(null))
+                .addOnFailureListener(callback::onError);
+    }
+
+    public void updateTaskStatus(String taskId, String status, TasksCallback callback) {
         db.collection(TASKS_COLLECTION)
                 .document(taskId)
-                .update("status", status)
+                .update("status", status,
+                        // Archival counts from when the task was completed
+                        "completedAt", Task.STATUS_COMPLETED.equals(status) ? FieldValue.serverTimestamp() : null)
                 .addOnSuccessListener(aVoid -> {
                     Log.d(TAG, "Task status updated");
                     // TODO: Re-implement notification logic
+                    callback.onSuccess(null);
                 })
-                .addOnFailureListener(e -> Log.w(TAG, "Error updating task status", e));
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Error updating task status", e);
+                    callback.onError(e);
+                });
     }
 
-    public void deleteTask(String taskId) {
+    public void deleteTask(String taskId, TasksCallback callback) {
         db.collection(TASKS_COLLECTION)
                 .document(taskId)
                 .delete()
                 .addOnSuccessListener(aVoid -> {
                     Log.d(TAG, "Task deleted");
                     // TODO: Re-implement notification logic
+                    callback.onSuccess(null);
                 })
-                .addOnFailureListener(e -> Log.w(TAG, "Error deleting task", e));
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Error deleting task", e);
+                    callback.onError(e);
+                });
     }
 
-    public void leaveSpace(String spaceId, String userUID, SpaceCallback callback) {
+    // Safe to run again if it was interrupted: a space left without members is still the
+    // last member's to clean up, so its tasks and document are deleted then.
+    public void leaveSpace(String spaceId, String userUID, SpaceDeletionCallback callback) {
         DocumentReference spaceDocRef = db.collection(SPACES_COLLECTION).document(spaceId);
         DocumentReference userDocRef = db.collection(USERS_COLLECTION).document(userUID);
 
@@ -316,7 +651,7 @@ public class FirebaseHelper {
                 throw new FirebaseFirestoreException("Space not found.", FirebaseFirestoreException.Code.NOT_FOUND);
             }
 
-            Space space = spaceDoc.toObject(Space.class);
+            Space space = DocumentCodec.decodeSpace(spaceDoc);
             List<String> members = space.getMembers();
 
             // Run batch updates
@@ -324,32 +659,39 @@ public class FirebaseHelper {
             transaction.update(spaceDocRef, "members", FieldValue.arrayRemove(userUID));
 
             // If the user was the last member, delete the space and its tasks
-            if (members.size() == 1 && members.contains(userUID)) {
-                // Return the space object so we can delete tasks
-                return space;
+            return members == null || members.isEmpty() || (members.size() == 1 && members.contains(userUID));
+        }).addOnSuccessListener(wasLastMember -> {
+            if (!wasLastMember) {
+                // Space was left successfully, not deleted
+                callback.onSuccess();
+                return;
             }
+            // This was the last user. Delete all tasks for this space, then the space doc;
+            // if that fails the space stays, so running this again finishes it
+            deleteTasksForSpace(spaceId, new BulkDeleteCallback() {
+                @Override
+                public void onProgress(int deleted) {
+                    callback.onProgress(deleted);
+                }
 
-            return null; // User left, but space remains
-        }).addOnSuccessListener(result -> {
-            if (result != null) {
-                //
-                // This was the last user. Delete all tasks for this space.
-                Space spaceToDelete = (Space) result;
-                deleteTasksForSpace(spaceToDelete.getSpaceId(), () -> {
-                    // After tasks are deleted, delete the space doc
+                @Override
+                public void onComplete(int deleted) {
                     spaceDocRef.delete()
-                            .addOnSuccessListener(aVoid -> callback.onSuccess(null))
+                            .addOnSuccessListener(aVoid -> callback.onSuccess())
                             .addOnFailureListener(callback::onError);
-                });
-            } else {
-                // Space was left successfully, not deleted
-                callback.onSuccess(null);
-            }
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    callback.onError(e);
+                }
+            });
         }).addOnFailureListener(callback::onError);
     }
 
     // --- NEW ---
-    public void deleteSpace(String spaceId, String userUID, SpaceCallback callback) {
+    // Safe to run again if it was interrupted: the space document goes last, after its tasks
+    public void deleteSpace(String spaceId, String userUID, SpaceDeletionCallback callback) {
         DocumentReference spaceDocRef = db.collection(SPACES_COLLECTION).document(spaceId);
 
         db.runTransaction(transaction -> {
@@ -358,7 +700,7 @@ public class FirebaseHelper {
                 throw new FirebaseFirestoreException("Space not found.", FirebaseFirestoreException.Code.NOT_FOUND);
             }
 
-            Space space = spaceDoc.toObject(Space.class);
+            Space space = DocumentCodec.decodeSpace(spaceDoc);
             if (space == null || space.getMembers().isEmpty() || !space.getMembers().get(0).equals(userUID)) {
                 throw new FirebaseFirestoreException("Permission denied. Only the creator can delete a space.", FirebaseFirestoreException.Code.PERMISSION_DENIED);
             }
@@ -372,42 +714,143 @@ public class FirebaseHelper {
             }
 
             // 1. Delete all tasks for the space
-            deleteTasksForSpace(spaceId, () -> {
-                // 2. After tasks are deleted, delete the space and update all users
-                WriteBatch batch = db.batch();
-
-                // 2a. Delete the space doc
-                batch.delete(spaceDocRef);
-
-                // 2b. Remove the spaceId from all members
-                List<String> memberList = (List<String>) members;
-                for (String memberId : memberList) {
-                    DocumentReference userDocRef = db.collection(USERS_COLLECTION).document(memberId);
-                    batch.update(userDocRef, "spaceIds", FieldValue.arrayRemove(spaceId));
+            deleteTasksForSpace(spaceId, new BulkDeleteCallback() {
+                @Override
+                public void onProgress(int deleted) {
+                    callback.onProgress(deleted);
                 }
 
-                // 2c. Commit the final batch
-                batch.commit()
-                        .addOnSuccessListener(aVoid -> callback.onSuccess(null))
-                        .addOnFailureListener(callback::onError);
+                @Override
+                public void onComplete(int deleted) {
+                    // 2. After tasks are deleted, delete the space and update all users
+                    WriteBatch batch = db.batch();
+
+                    // 2a. Delete the space doc
+                    batch.delete(spaceDocRef);
+
+                    // 2b. Remove the spaceId from all members
+                    for (String memberId : members) {
+                        DocumentReference userDocRef = db.collection(USERS_COLLECTION).document(memberId);
+                        batch.update(userDocRef, "spaceIds", FieldValue.arrayRemove(spaceId));
+                    }
+
+                    // 2c. Commit the final batch
+                    batch.commit()
+                            .addOnSuccessListener(aVoid -> callback.onSuccess())
+                            .addOnFailureListener(callback::onError);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    // The space stays, with whatever tasks are left, until this is run again
+                    callback.onError(e);
+                }
             });
         }).addOnFailureListener(callback::onError);
     }
     // --- END NEW ---
 
-    private void deleteTasksForSpace(String spaceId, Runnable onComplete) {
-        db.collection(TASKS_COLLECTION).whereEqualTo("spaceId", spaceId).get()
-                .addOnSuccessListener(querySnapshot -> {
-                    WriteBatch batch = db.batch();
-                    for
-                    (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                        batch.delete(doc.getReference());
-                    }
-                    batch.commit().addOnCompleteListener(task -> onComplete.run());
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to query tasks for deletion", e);
-                    onComplete.run(); // Still run onComplete, even if task deletion fails
-                });
+    /**
+     * Deletes every task of the space, live and archived. Pages of up to 500 documents are
+     * read from the server with a cursor and each is deleted in its own batch, with up to
+     * MAX_PARALLEL_DELETE_BATCHES batches in flight while the next pages are read, so only
+     * that many pages are held at once. Stops at the first failure; running it again picks
+     * up whatever is left.
+     */
+    public void deleteTasksForSpace(String spaceId, BulkDeleteCallback callback) {
+        new BulkDelete(spaceId, Arrays.asList(TASKS_COLLECTION, ARCHIVE_COLLECTION), callback).readNextPage();
+    }
+
+    // State of one deleteTasksForSpace run. Main thread only, where Task listeners run.
+    private final class BulkDelete {
+        private final String spaceId;
+        private final List<String> collections;
+        private final BulkDeleteCallback callback;
+        private int collectionIndex;
+        private DocumentSnapshot cursor;
+        private boolean reading;
+        private boolean allRead;
+        private int batchesInFlight;
+        private int deleted;
+        private Exception failure;
+        private boolean finished;
+
+        BulkDelete(String spaceId, List<String> collections, BulkDeleteCallback callback) {
+            this.spaceId = spaceId;
+            this.collections = collections;
+            this.callback = callback;
+        }
+
+        void readNextPage() {
+            if (reading || allRead || failure != null || batchesInFlight >= MAX_PARALLEL_DELETE_BATCHES) return;
+            reading = true;
+            // Equality filter in document order, served without a composite index
+            Query query = db.collection(collections.get(collectionIndex))
+                    .whereEqualTo("spaceId", spaceId)
+                    .orderBy(FieldPath.documentId())
+                    .limit(MAX_BATCH_WRITES);
+            if (cursor != null) {
+                query = query.startAfter(cursor);
+            }
+            query.get(Source.SERVER).addOnSuccessListener(querySnapshot -> {
+                reading = false;
+                List<DocumentSnapshot> docs = querySnapshot.getDocuments();
+                if (docs.size() < MAX_BATCH_WRITES) {
+                    // Last page of this collection, go on with the next one
+                    collectionIndex++;
+                    cursor = null;
+                    allRead = collectionIndex == collections.size();
+                } else {
+                    cursor = docs.get(docs.size() - 1);
+                }
+                if (!docs.isEmpty()) {
+                    commit(docs);
+                }
+                readNextPage();
+                finishIfDone();
+            }).addOnFailureListener(e -> {
+                reading = false;
+                fail(e);
+            });
+        }
+
+        private void commit(List<DocumentSnapshot> docs) {
+            WriteBatch batch = db.batch();
+            for (DocumentSnapshot doc : docs) {
+                batch.delete(doc.getReference());
+            }
+            batchesInFlight++;
+            batch.commit().addOnSuccessListener(aVoid -> {
+                batchesInFlight--;
+                deleted += docs.size();
+                callback.onProgress(deleted);
+                readNextPage();
+                finishIfDone();
+            }).addOnFailureListener(e -> {
+                batchesInFlight--;
+                fail(e);
+            });
+        }
+
+        private void fail(Exception e) {
+            Log.w(TAG, "Bulk delete failed for space " + spaceId + " after " + deleted + " tasks", e);
+            if (failure == null) {
+                failure = e;
+            }
+            finishIfDone();
+        }
+
+        // Reports once nothing is left running
+        private void finishIfDone() {
+            if (finished || reading || batchesInFlight > 0) return;
+            if (failure != null) {
+                finished = true;
+                callback.onError(failure);
+            } else if (allRead) {
+                finished = true;
+                Log.d(TAG, "Deleted " + deleted + " tasks of space " + spaceId);
+                callback.onComplete(deleted);
+            }
+        }
     }
 }
\ No newline at end of file
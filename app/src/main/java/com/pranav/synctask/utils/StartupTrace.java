@@ -0,0 +1,37 @@
+package com.pranav.synctask.utils;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * Logs how long each startup stage took since the process started, so cold starts
+ * (e.g. from a notification) can be compared stage by stage in logcat.
+ */
+public class StartupTrace {
+    private static final String TAG = "StartupTrace";
+    private static long lastMark = Process.getStartElapsedRealtime();
+
+    public static synchronized void mark(String stage) {
+        long now = SystemClock.elapsedRealtime();
+        Log.i(TAG, stage + ": +" + (now - lastMark) + " ms (" + (now - Process.getStartElapsedRealtime()) + " ms since process start)");
+        lastMark = now;
+    }
+
+    // Marks the activity's first frame, i.e. its time to initial display, then runs afterFrame
+    public static void markFirstFrame(Activity activity, Runnable afterFrame) {
+        View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                mark(activity.getClass().getSimpleName() + " initial display");
+                decorView.post(afterFrame);
+                return true;
+            }
+        });
+    }
+}
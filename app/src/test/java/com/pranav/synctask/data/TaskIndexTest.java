@@ -0,0 +1,78 @@
+package com.pranav.synctask.data;
+
+import com.pranav.synctask.models.Task;
+import com.pranav.synctask.models.TestTasks;
+import com.pranav.synctask.utils.DateUtils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskIndexTest {
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    // 2024-03-10 and 2024-03-11, midnight UTC as the date pickers store them
+    private static final long MARCH_10 = 19792 * DAY;
+    private static final long MARCH_11 = MARCH_10 + DAY;
+
+    private static Task due(String id, long dueDate) {
+        Task task = TestTasks.task(id, Task.PRIORITY_NORMAL, 100);
+        task.setDueDateFromDate(new Date(dueDate));
+        return task;
+    }
+
+    @Test
+    public void build_bucketsByDueDayMonthAndType() {
+        Task a = due("a", MARCH_10);
+        Task b = due("b", MARCH_11);
+        Task c = TestTasks.task("c", Task.PRIORITY_NORMAL, 100);
+        c.setTaskType(Task.TYPE_UPDATE);
+        TaskIndex index = TaskIndex.build(Arrays.asList(a, b, c), null, null);
+
+        assertEquals(Collections.singletonList(a), index.getDueOn(DateUtils.dueDay(MARCH_10)));
+        assertEquals(Arrays.asList(a, b), index.getDueInMonth(DateUtils.dueMonth(MARCH_10)));
+        assertEquals(Collections.singletonList(c), index.getOfType(Task.TYPE_UPDATE));
+        assertEquals(Arrays.asList(a, b), index.getOfType(Task.TYPE_TASK));
+        assertTrue(index.getDueOn(DateUtils.dueDay(MARCH_11) + 1).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void buckets_keepTheListOrder() {
+        Task first = due("first", MARCH_10);
+        Task second = due("second", MARCH_10);
+        TaskIndex index = TaskIndex.build(Arrays.asList(second, first), null, null);
+
+        assertEquals(Arrays.asList(second, first), index.getDueOn(DateUtils.dueDay(MARCH_10)));
+    }
+
+    @Test
+    public void follows_onlyTheIndexItWasBuiltFrom() {
+        Task a = due("a", MARCH_10);
+        Task b = due("b", MARCH_11);
+        TaskIndex v0 = TaskIndex.build(Collections.singletonList(a), null, null);
+        List<TaskChange> added = Collections.singletonList(new TaskChange(null, b));
+        TaskIndex v1 = TaskIndex.build(Arrays.asList(a, b), v0, added);
+        TaskIndex v2 = TaskIndex.build(Arrays.asList(a, b), v1, Collections.emptyList());
+
+        assertTrue(v1.follows(v0));
+        assertTrue(v2.follows(v1));
+        assertFalse(v2.follows(v0));
+        assertFalse(v1.follows(v1));
+        assertFalse(v1.follows(null));
+        assertEquals(added, v1.getChanges());
+    }
+
+    @Test
+    public void follows_isFalseWhenTheChangesAreUnknown() {
+        TaskIndex v0 = TaskIndex.build(Collections.emptyList(), null, null);
+        TaskIndex v1 = TaskIndex.build(Collections.emptyList(), v0, null);
+
+        assertFalse(v1.follows(v0));
+        assertNull(v1.getChanges());
+    }
+}
@@ -0,0 +1,165 @@
+package com.pranav.synctask.data;
+
+import com.pranav.synctask.models.Task;
+import com.pranav.synctask.models.TestTasks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TaskMergeEngineTest {
+
+    private static List<String> ids(List<Task> tasks) {
+        List<String> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void snapshot_isHighestPriorityThenNewestFirst() {
+        TaskMergeEngine engine = new TaskMergeEngine();
+        engine.upsertRemote(TestTasks.task("a", Task.PRIORITY_LOW, 300));
+        engine.upsertRemote(TestTasks.task("b", Task.PRIORITY_HIGH, 100));
+        engine.upsertRemote(TestTasks.task("c", Task.PRIORITY_NORMAL, 200));
+        engine.upsertRemote(TestTasks.task("d", Task.PRIORITY_HIGH, 200));
+        engine.upsertRemote(TestTasks.task("e", Task.PRIORITY_NORMAL, 100));
+
+        assertEquals(Arrays.asList("d", "b", "c", "e", "a"), ids(engine.snapshot()));
+    }
+
+    @Test
+    public void snapshot_equalKeysAreOrderedById() {
+        TaskMergeEngine engine = new TaskMergeEngine();
+        engine.upsertRemote(TestTasks.task("z", Task.PRIORITY_NORMAL, 100));
+        engine.upsertRemote(TestTasks.task("m", Task.PRIORITY_NORMAL, 100));
+        engine.upsertRemote(TestTasks.task("a", Task.PRIORITY_NORMAL, 100));
+
+        assertEquals(Arrays.asList("a", "m", "z"), ids(engine.snapshot()));
+    }
+
+    @Test
+    public void insertsInAnyOrder_matchFullSort() {
+        Random random = new Random(42);
+        String[] priorities = {Task.PRIORITY_LOW, Task.PRIORITY_NORMAL, Task.PRIORITY_HIGH};
+        TaskMergeEngine engine = new TaskMergeEngine();
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Task task = TestTasks.task("t" + i, priorities[random.nextInt(3)], random.nextInt(50));
+            engine.upsertRemote(task);
+            expected.add(task);
+        }
+        Collections.sort(expected, TaskMergeEngine.DISPLAY_ORDER_TASKS);
+
+        assertEquals(ids(expected), ids(engine.snapshot()));
+    }
+
+    @Test
+    public void upsert_replacesTheOldVersionAndMovesIt() {
+        TaskMergeEngine engine = new TaskMergeEngine();
+        engine.upsertRemote(TestTasks.task("a", Task.PRIORITY_NORMAL, 200));
+        engine.upsertRemote(TestTasks.task("b", Task.PRIORITY_NORMAL, 100));
+        Task raised = TestTasks.task("b", Task.PRIORITY_HIGH, 100);
+        engine.upsertRemote(raised);
+
+        assertEquals(Arrays.asList("b", "a"), ids(engine.snapshot()));
+        assertSame(raised, engine.getRemote("b"));
+        assertEquals(2, engine.size());
+    }
+
+    @Test
+    public void remove_findsTaskEditedInPlace() {
+        TaskMergeEngine engine = new TaskMergeEngine();
+        Task task = TestTasks.task("a", Task.PRIORITY_NORMAL, 100);
+        engine.upsertRemote(task);
+        engine.upsertRemote(TestTasks.task("b", Task.PRIORITY_LOW, 100));
+        // Changes its sort key after it was inserted
+        task.setPriority(Task.PRIORITY_HIGH);
+        engine.removeRemote("a");
+
+        assertEquals(Collections.singletonList("b"), ids(engine.snapshot()));
+        assertNull(engine.getRemote("a"));
+    }
+
+    @Test
+    public void retainRemote_dropsTasksNotInTheSet() {
+        TaskMergeEngine engine = new TaskMergeEngine();
+        engine.upsertRemote(TestTasks.task("a", Task.PRIORITY_NORMAL, 300));
+        engine.upsertRemote(TestTasks.task("b", Task.PRIORITY_NORMAL, 200));
+        engine.upsertRemote(TestTasks.task("c", Task.PRIORITY_NORMAL, 100));
+        engine.retainRemote(new HashSet<>(Arrays.asList("a", "c")));
+
+        assertEquals(Arrays.asList("a", "c"), ids(engine.snapshot()));
+    }
+
+    @Test
+    public void snapshot_isReusedUntilSomethingChanges() {
+        TaskMergeEngine engine = new TaskMergeEngine();
+        engine.upsertRemote(TestTasks.task("a", Task.PRIORITY_NORMAL, 100));
+        List<Task> first = engine.snapshot();
+
+        assertSame(first, engine.snapshot());
+        engine.upsertRemote(TestTasks.task("b", Task.PRIORITY_NORMAL, 200));
+        assertNotSame(first, engine.snapshot());
+    }
+
+    @Test
+    public void drainChanges_reportsEachVisibleChangeOnce() {
+        TaskMergeEngine engine = new TaskMergeEngine();
+        Task a = TestTasks.task("a", Task.PRIORITY_NORMAL, 100);
+        engine.upsertRemote(a);
+        engine.drainChanges();
+
+        Task a2 = TestTasks.task("a", Task.PRIORITY_HIGH, 100);
+        Task b = TestTasks.task("b", Task.PRIORITY_NORMAL, 200);
+        engine.upsertRemote(a2);
+        engine.upsertRemote(b);
+        List<TaskChange> changes = engine.drainChanges();
+
+        assertEquals(2, changes.size());
+        assertSame(a, changes.get(0).before);
+        assertSame(a2, changes.get(0).after);
+        assertNull(changes.get(1).before);
+        assertSame(b, changes.get(1).after);
+        assertTrue(engine.drainChanges().isEmpty());
+    }
+
+    @Test
+    public void drainChanges_skipsTasksAddedAndRemovedInBetween() {
+        TaskMergeEngine engine = new TaskMergeEngine();
+        engine.upsertRemote(TestTasks.task("a", Task.PRIORITY_NORMAL, 100));
+        engine.removeRemote("a");
+
+        assertTrue(engine.drainChanges().isEmpty());
+    }
+
+    @Test
+    public void drainChanges_isNullAfterClear() {
+        TaskMergeEngine engine = new TaskMergeEngine();
+        engine.upsertRemote(TestTasks.task("a", Task.PRIORITY_NORMAL, 100));
+        engine.clear();
+
+        assertNull(engine.drainChanges());
+        assertEquals(0, engine.size());
+        assertTrue(engine.snapshot().isEmpty());
+    }
+
+    @Test
+    public void search_followsInsertsAndRemoves() {
+        TaskMergeEngine engine = new TaskMergeEngine();
+        engine.upsertRemote(TestTasks.task("a", "Buy groceries", Task.PRIORITY_NORMAL, 100));
+        engine.upsertRemote(TestTasks.task("b", "Book flights", Task.PRIORITY_NORMAL, 200));
+
+        assertEquals(1, engine.search("groc").size());
+        engine.removeRemote("a");
+        assertTrue(engine.search("groc").isEmpty());
+    }
+}
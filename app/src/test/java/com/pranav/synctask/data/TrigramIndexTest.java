@@ -0,0 +1,143 @@
+package com.pranav.synctask.data;
+
+import com.pranav.synctask.models.Task;
+import com.pranav.synctask.models.TestTasks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TrigramIndexTest {
+
+    private static final String[] WORDS = {
+            "buy", "call", "groceries", "plumber", "invoice", "birthday", "flight", "dentist",
+            "laundry", "report", "garden", "rent", "insurance", "meeting", "gift", "car"
+    };
+
+    private static Task task(String id, String title, String description) {
+        Task task = TestTasks.task(id, title, Task.PRIORITY_NORMAL, 100);
+        task.setDescription(description);
+        return task;
+    }
+
+    // The filter the index replaced: every task, lower-cased, on each keystroke
+    private static Set<Task> linearSearch(List<Task> tasks, String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        Set<Task> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Task task : tasks) {
+            String title = task.getTitle() != null ? task.getTitle().toLowerCase(Locale.ROOT) : "";
+            String description = task.getDescription() != null ? task.getDescription().toLowerCase(Locale.ROOT) : "";
+            if (title.contains(needle) || description.contains(needle)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    public void search_matchesSubstringsOfTitleAndDescriptionIgnoringCase() {
+        TrigramIndex index = new TrigramIndex();
+        Task groceries = task("a", "Buy Groceries", "milk and eggs");
+        Task flights = task("b", "Book flights", "Window seats");
+        index.add(groceries);
+        index.add(flights);
+
+        assertEquals(Collections.singleton(groceries), index.search("grocer"));
+        assertEquals(Collections.singleton(groceries), index.search("MILK AND"));
+        assertEquals(Collections.singleton(flights), index.search("dow se"));
+        assertTrue(index.search("bananas").isEmpty());
+    }
+
+    @Test
+    public void search_needsTheTrigramsInARow() {
+        TrigramIndex index = new TrigramIndex();
+        // Has "abc" and "cde" but not "abcde"
+        index.add(task("a", "abc xcde", null));
+
+        assertTrue(index.search("abcde").isEmpty());
+    }
+
+    @Test
+    public void search_doesNotMatchAcrossTitleAndDescription() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(task("a", "pay", "rent"));
+
+        assertTrue(index.search("payrent").isEmpty());
+        assertTrue(index.search("pay rent").isEmpty());
+    }
+
+    @Test
+    public void search_shortQueriesScanEveryTask() {
+        TrigramIndex index = new TrigramIndex();
+        Task ab = task("a", "Ab", null);
+        index.add(ab);
+        index.add(task("b", "Cd", null));
+
+        assertEquals(Collections.singleton(ab), index.search("a"));
+        assertEquals(2, index.search("").size());
+    }
+
+    @Test
+    public void remove_usesTheTextTheTaskWasIndexedWith() {
+        TrigramIndex index = new TrigramIndex();
+        Task task = task("a", "Call plumber", null);
+        index.add(task);
+        // Edited in place after it was indexed
+        task.setTitle("Call electrician");
+        index.remove(task);
+
+        assertTrue(index.search("plumber").isEmpty());
+        assertTrue(index.search("electric").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void add_againReindexesTheTask() {
+        TrigramIndex index = new TrigramIndex();
+        Task task = task("a", "Draft report", null);
+        index.add(task);
+        task.setTitle("Send report");
+        index.add(task);
+
+        assertTrue(index.search("draft").isEmpty());
+        Set<Task> matches = index.search("send rep");
+        assertEquals(Collections.singleton(task), matches);
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void clear_emptiesTheIndex() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(task("a", "Something", null));
+        index.clear();
+
+        assertTrue(index.search("thing").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void search_findsWhatTheLinearFilterFinds() {
+        Random random = new Random(7);
+        List<Task> tasks = new ArrayList<>();
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 2_000; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + random.nextInt(1000);
+            Task task = task("t" + i, title, WORDS[random.nextInt(WORDS.length)]);
+            tasks.add(task);
+            index.add(task);
+        }
+
+        for (String query : new String[] {"gro", "Groceries", "plumb", "invoice 12", "rent car", "zebra"}) {
+            assertEquals(query, linearSearch(tasks, query), index.search(query));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.pranav.synctask.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CodeTableTest {
+
+    @Test
+    public void knownValues_getTheirFixedCodes() {
+        CodeTable table = new CodeTable("pending", "completed");
+
+        assertEquals(0, table.encode("pending"));
+        assertEquals(1, table.encode("completed"));
+        assertEquals("completed", table.decode((byte) 1));
+    }
+
+    @Test
+    public void null_isNone() {
+        CodeTable table = new CodeTable("a");
+
+        assertEquals(CodeTable.NONE, table.encode(null));
+        assertNull(table.decode(CodeTable.NONE));
+    }
+
+    @Test
+    public void unknownValues_areAppendedOnceAndRoundTrip() {
+        CodeTable table = new CodeTable("a", "b");
+        byte code = table.encode("archived");
+
+        assertEquals(2, code);
+        assertEquals(code, table.encode("archived"));
+        assertEquals("archived", table.decode(code));
+    }
+
+    @Test
+    public void fullTable_returnsUncodedInsteadOfThrowing() {
+        CodeTable table = new CodeTable();
+        for (int i = 0; i <= Byte.MAX_VALUE; i++) {
+            assertEquals(i, table.encode("value" + i));
+        }
+
+        assertEquals(CodeTable.UNCODED, table.encode("one too many"));
+        assertNull(table.decode(CodeTable.UNCODED));
+        // Values coded before the table filled up still decode
+        assertEquals("value127", table.decode(Byte.MAX_VALUE));
+    }
+
+    @Test
+    public void task_keepsValuesItsTableCannotCode() {
+        // Fills the shared scope table; known scopes keep their fixed codes
+        Task filler = new Task("filler");
+        for (int i = 0; i <= Byte.MAX_VALUE; i++) {
+            filler.setOwnershipScope("junk scope " + i);
+        }
+        Task task = new Task("t1");
+        task.setOwnershipScope("scope nobody has coded");
+
+        assertEquals("scope nobody has coded", task.getOwnershipScope());
+        assertEquals("scope nobody has coded", task.toMap().get("ownershipScope"));
+        task.setOwnershipScope(Task.SCOPE_SHARED);
+        assertEquals(Task.SCOPE_CODE_SHARED, task.getOwnershipScopeCode());
+        assertEquals(Task.SCOPE_SHARED, task.getOwnershipScope());
+    }
+}
@@ -0,0 +1,121 @@
+package com.pranav.synctask.models;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SnapshotCodecTest {
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] bytes(Writer writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Task fullTask() {
+        Task task = TestTasks.task("doc1", "Pay rent \u20ac", Task.PRIORITY_HIGH, 1_700_000_000_000L);
+        task.setLocalId("local1");
+        task.setCreatorUID("uid1");
+        task.setCreatorDisplayName("Sam");
+        task.setDescription("Before the 5th");
+        task.setStatus(Task.STATUS_COMPLETED);
+        task.setTaskType(Task.TYPE_REMINDER);
+        task.setOwnershipScope(Task.SCOPE_ASSIGNED);
+        task.setSpaceId("space1");
+        task.setDueDateMillis(1_700_100_000_000L);
+        task.setCompletedAtMillis(1_700_200_000_000L);
+        task.setSynced(false);
+        return task;
+    }
+
+    @Test
+    public void tasks_roundTrip() throws IOException {
+        Task task = fullTask();
+        Task empty = new Task("doc2");
+        byte[] data = bytes(out -> SnapshotCodec.writeTasks(out, Arrays.asList(task, empty)));
+        List<Task> read = SnapshotCodec.readTasks(ByteBuffer.wrap(data));
+
+        assertNotNull(read);
+        assertEquals(2, read.size());
+        Task copy = read.get(0);
+        assertEquals(task.toMap(), copy.toMap());
+        assertEquals("doc1", copy.getId());
+        assertEquals(task.getCompletedAtMillis(), copy.getCompletedAtMillis());
+        assertFalse(copy.isSynced());
+        assertEquals(empty.toMap(), read.get(1).toMap());
+        assertEquals(Task.NO_DATE, read.get(1).getDueDateMillis());
+    }
+
+    @Test
+    public void spaces_roundTrip() throws IOException {
+        Space space = new Space("s1", "Home", Arrays.asList("uid1", "uid2"), "ABC123");
+        Space noMembers = new Space();
+        noMembers.setSpaceId("s2");
+        byte[] data = bytes(out -> SnapshotCodec.writeSpaces(out, Arrays.asList(space, noMembers)));
+        List<Space> read = SnapshotCodec.readSpaces(ByteBuffer.wrap(data));
+
+        assertNotNull(read);
+        assertEquals(2, read.size());
+        assertEquals("s1", read.get(0).getSpaceId());
+        assertEquals("Home", read.get(0).getSpaceName());
+        assertEquals("ABC123", read.get(0).getInviteCode());
+        assertEquals(Arrays.asList("uid1", "uid2"), read.get(0).getMembers());
+        assertNull(read.get(1).getMembers());
+    }
+
+    @Test
+    public void emptyList_roundTrips() throws IOException {
+        byte[] data = bytes(out -> SnapshotCodec.writeTasks(out, Collections.emptyList()));
+
+        assertEquals(Collections.emptyList(), SnapshotCodec.readTasks(ByteBuffer.wrap(data)));
+    }
+
+    @Test
+    public void truncatedFile_readsAsNull() throws IOException {
+        byte[] data = bytes(out -> SnapshotCodec.writeTasks(out, Arrays.asList(fullTask(), fullTask())));
+        for (int length = 0; length < data.length; length++) {
+            assertNull("length " + length, SnapshotCodec.readTasks(ByteBuffer.wrap(data, 0, length)));
+        }
+    }
+
+    @Test
+    public void otherKindOrVersion_readsAsNull() throws IOException {
+        byte[] tasks = bytes(out -> SnapshotCodec.writeTasks(out, Collections.singletonList(fullTask())));
+        assertNull(SnapshotCodec.readSpaces(ByteBuffer.wrap(tasks)));
+
+        byte[] oldVersion = tasks.clone();
+        oldVersion[7] = 1; // Low byte of the format version
+        assertNull(SnapshotCodec.readTasks(ByteBuffer.wrap(oldVersion)));
+
+        byte[] badMagic = tasks.clone();
+        badMagic[0] ^= 0x7f;
+        assertNull(SnapshotCodec.readTasks(ByteBuffer.wrap(badMagic)));
+    }
+
+    @Test
+    public void corruptLengths_readAsNull() throws IOException {
+        byte[] tasks = bytes(out -> SnapshotCodec.writeTasks(out, Collections.singletonList(fullTask())));
+
+        byte[] hugeCount = tasks.clone();
+        hugeCount[12] = 0x7f; // High byte of the record count
+        assertNull(SnapshotCodec.readTasks(ByteBuffer.wrap(hugeCount)));
+
+        byte[] hugeString = tasks.clone();
+        hugeString[16] = 0x7f; // High byte of the first string's length
+        assertNull(SnapshotCodec.readTasks(ByteBuffer.wrap(hugeString)));
+    }
+}
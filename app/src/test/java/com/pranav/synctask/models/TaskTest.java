@@ -0,0 +1,169 @@
+package com.pranav.synctask.models;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TaskTest {
+
+    private static Task copy(Task task) {
+        Task copy = TestTasks.task(task.getId(), task.getTitle(), task.getPriority(), task.getCreatedAtMillis());
+        copy.setDescription(task.getDescription());
+        copy.setStatus(task.getStatus());
+        copy.setDueDateMillis(task.getDueDateMillis());
+        copy.setSpaceId(task.getSpaceId());
+        return copy;
+    }
+
+    private static Task sample() {
+        Task task = TestTasks.task("t1", "Water plants", Task.PRIORITY_NORMAL, 1_000_000L);
+        task.setDescription("Balcony too");
+        task.setSpaceId("space");
+        return task;
+    }
+
+    @Test
+    public void diff_isEmptyForAnUnchangedTask() {
+        Task task = sample();
+
+        assertTrue(copy(task).diff(task).isEmpty());
+    }
+
+    @Test
+    public void diff_holdsOnlyTheChangedFields() {
+        Task original = sample();
+        Task edited = copy(original);
+        edited.setTitle("Water all plants");
+        Map<String, Object> changes = edited.diff(original);
+
+        assertEquals(Collections.singletonMap("title", "Water all plants"), changes);
+    }
+
+    @Test
+    public void diff_carriesDerivedFieldsWithTheirSource() {
+        Task original = sample();
+        Task edited = copy(original);
+        edited.setPriority(Task.PRIORITY_HIGH);
+        edited.setDueDateMillis(86_400_000L);
+        Map<String, Object> changes = edited.diff(original);
+
+        assertEquals(new HashSet<>(Arrays.asList("priority", "sortKey", "dueDate", "dueDay", "dueMonth")),
+                changes.keySet());
+        assertEquals(Task.PRIORITY_HIGH, changes.get("priority"));
+        assertEquals(edited.getSortKey(), changes.get("sortKey"));
+    }
+
+    @Test
+    public void diff_clearedValueIsWrittenAsNull() {
+        Task original = sample();
+        Task edited = copy(original);
+        edited.setDescription(null);
+        Map<String, Object> changes = edited.diff(original);
+
+        assertTrue(changes.containsKey("description"));
+        assertNull(changes.get("description"));
+    }
+
+    @Test
+    public void diff_againstOpenedSnapshotKeepsPartnersChanges() {
+        Task opened = sample();
+        Map<String, Object> snapshot = opened.toMap();
+        // A partner completes the task and rewrites the description while the editor is open
+        Task remote = copy(opened);
+        remote.setStatus(Task.STATUS_COMPLETED);
+        remote.setCompletedAtMillis(2_000_000L);
+        remote.setDescription("Balcony and kitchen");
+        // The editor only saw the copy it was opened with
+        Task edited = copy(opened);
+        edited.setTitle("Water all plants");
+        Map<String, Object> changes = edited.diff(snapshot);
+
+        assertEquals(Collections.singletonMap("title", "Water all plants"), changes);
+        // Diffing against the newer copy instead would write the old values back
+        Map<String, Object> reverting = edited.diff(remote);
+        assertEquals(Task.STATUS_PENDING, reverting.get("status"));
+        assertEquals("Balcony too", reverting.get("description"));
+        assertTrue(reverting.containsKey("completedAt"));
+    }
+
+    @Test
+    public void editableFields_leaveStatusAndCompletionAlone() {
+        Task task = sample();
+        task.setStatus(Task.STATUS_COMPLETED);
+        task.setCompletedAtMillis(2_000_000L);
+        Map<String, Object> fields = task.editableFields();
+
+        assertFalse(fields.containsKey("status"));
+        assertFalse(fields.containsKey("completedAt"));
+        assertFalse(fields.containsKey("localId"));
+        assertFalse(fields.containsKey("creatorUID"));
+        assertEquals("Water plants", fields.get("title"));
+        assertEquals(task.getSortKey(), fields.get("sortKey"));
+    }
+
+    private static int compareKeys(Task a, Task b) {
+        return a.getSortKey().compareTo(b.getSortKey());
+    }
+
+    @Test
+    public void sortKey_ordersByPriorityFirst() {
+        Task high = TestTasks.task("a", Task.PRIORITY_HIGH, 1_000L);
+        Task normal = TestTasks.task("b", Task.PRIORITY_NORMAL, 5_000L);
+        Task low = TestTasks.task("c", Task.PRIORITY_LOW, 9_000L);
+
+        assertTrue(compareKeys(high, normal) < 0);
+        assertTrue(compareKeys(normal, low) < 0);
+    }
+
+    @Test
+    public void sortKey_newerTaskComesFirst() {
+        Task older = TestTasks.task("a", Task.PRIORITY_NORMAL, 1_000L);
+        Task newer = TestTasks.task("b", Task.PRIORITY_NORMAL, 2_000L);
+
+        assertTrue(compareKeys(newer, older) < 0);
+    }
+
+    @Test
+    public void sortKey_missingCreationDateComesLast() {
+        Task dated = TestTasks.task("b", Task.PRIORITY_NORMAL, 1_000L);
+        Task undated = TestTasks.task("a", Task.PRIORITY_NORMAL, Task.NO_DATE);
+
+        assertTrue(compareKeys(dated, undated) < 0);
+    }
+
+    @Test
+    public void sortKey_unknownPriorityRanksAsNormal() {
+        Task unknown = TestTasks.task("a", "Urgent", 1_000L);
+        Task normal = TestTasks.task("a", Task.PRIORITY_NORMAL, 1_000L);
+
+        assertEquals("Urgent", unknown.getPriority());
+        assertEquals(normal.getSortKey(), unknown.getSortKey());
+    }
+
+    @Test
+    public void sortKey_tiesBreakOnId() {
+        Task first = TestTasks.task("a", Task.PRIORITY_NORMAL, 1_000L);
+        Task second = TestTasks.task("b", Task.PRIORITY_NORMAL, 1_000L);
+
+        assertTrue(compareKeys(first, second) < 0);
+    }
+
+    @Test
+    public void sortKey_followsPriorityAndCreationDateChanges() {
+        Task task = TestTasks.task("a", Task.PRIORITY_LOW, 1_000L);
+        Task other = TestTasks.task("b", Task.PRIORITY_NORMAL, 1_000L);
+        assertTrue(compareKeys(other, task) < 0);
+
+        task.setPriority(Task.PRIORITY_HIGH);
+        assertTrue(compareKeys(task, other) < 0);
+
+        task.setPriority(Task.PRIORITY_NORMAL);
+        task.setCreatedAtMillis(500L);
+        assertTrue(compareKeys(other, task) < 0);
+    }
+}
@@ -0,0 +1,22 @@
+package com.pranav.synctask.models;
+
+/** Builds tasks for JVM tests without the FirebaseAuth lookups of Task's public constructors. */
+public final class TestTasks {
+
+    private TestTasks() {
+    }
+
+    public static Task task(String id, String title, String priority, long createdAt) {
+        Task task = new Task(id);
+        task.setTitle(title);
+        task.setStatus(Task.STATUS_PENDING);
+        task.setTaskType(Task.TYPE_TASK);
+        task.setPriority(priority);
+        task.setCreatedAtMillis(createdAt);
+        return task;
+    }
+
+    public static Task task(String id, String priority, long createdAt) {
+        return task(id, "Task " + id, priority, createdAt);
+    }
+}
@@ -0,0 +1,97 @@
+package com.pranav.synctask.utils;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class DateUtilsTest {
+
+    private static Calendar at(String zone, int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone(zone));
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar;
+    }
+
+    @Test
+    public void epochDay_countsDaysSince1970() {
+        assertEquals(0, DateUtils.epochDay(at("UTC", 1970, Calendar.JANUARY, 1, 0, 0)));
+        assertEquals(-1, DateUtils.epochDay(at("UTC", 1969, Calendar.DECEMBER, 31, 23, 59)));
+        assertEquals(19782, DateUtils.epochDay(at("UTC", 2024, Calendar.FEBRUARY, 29, 12, 0)));
+    }
+
+    @Test
+    public void epochDay_isTheLocalDayOfTheCalendarsZone() {
+        // The same local day at both ends, on either side of UTC
+        assertEquals(19792, DateUtils.epochDay(at("Asia/Kolkata", 2024, Calendar.MARCH, 10, 0, 10)));
+        assertEquals(19792, DateUtils.epochDay(at("Asia/Kolkata", 2024, Calendar.MARCH, 10, 23, 50)));
+        assertEquals(19792, DateUtils.epochDay(at("America/Los_Angeles", 2024, Calendar.MARCH, 10, 0, 10)));
+        assertEquals(19792, DateUtils.epochDay(at("America/Los_Angeles", 2024, Calendar.MARCH, 10, 23, 50)));
+    }
+
+    @Test
+    public void epochDay_followsDaylightSavingTime() {
+        // Clocks in Los Angeles go forward at 2:00 on 2024-03-10
+        assertEquals(19792, DateUtils.epochDay(at("America/Los_Angeles", 2024, Calendar.MARCH, 10, 3, 30)));
+        assertEquals(19793, DateUtils.epochDay(at("America/Los_Angeles", 2024, Calendar.MARCH, 11, 0, 0)));
+    }
+
+    @Test
+    public void monthKey_isYearTimesTwelvePlusMonth() {
+        assertEquals(2024 * 12 + Calendar.MARCH, DateUtils.monthKey(at("UTC", 2024, Calendar.MARCH, 31, 23, 59)));
+        assertEquals(2025 * 12 + Calendar.JANUARY, DateUtils.monthKey(at("UTC", 2025, Calendar.JANUARY, 1, 0, 0)));
+        assertEquals(1, DateUtils.monthKey(at("UTC", 2024, Calendar.DECEMBER, 1, 0, 0))
+                - DateUtils.monthKey(at("UTC", 2024, Calendar.NOVEMBER, 30, 0, 0)));
+    }
+
+    @Test
+    public void dueDay_isTheUtcDayOfThePickedDate() {
+        // The date picker stores midnight UTC of the picked day
+        long march10 = at("UTC", 2024, Calendar.MARCH, 10, 0, 0).getTimeInMillis();
+        assertEquals(19792, DateUtils.dueDay(march10));
+        assertEquals(19792, DateUtils.dueDay(march10 + 24L * 60 * 60 * 1000 - 1));
+        assertEquals(19793, DateUtils.dueDay(march10 + 24L * 60 * 60 * 1000));
+        assertEquals(0, DateUtils.dueDay(0L));
+        assertEquals(-1, DateUtils.dueDay(-1L));
+    }
+
+    @Test
+    public void dueMonth_rollsOverAtMonthAndYearEnds() {
+        assertEquals(2024 * 12 + Calendar.FEBRUARY,
+                DateUtils.dueMonth(at("UTC", 2024, Calendar.FEBRUARY, 29, 23, 59).getTimeInMillis()));
+        assertEquals(2024 * 12 + Calendar.MARCH,
+                DateUtils.dueMonth(at("UTC", 2024, Calendar.MARCH, 1, 0, 0).getTimeInMillis()));
+        assertEquals(2024 * 12 + Calendar.DECEMBER,
+                DateUtils.dueMonth(at("UTC", 2024, Calendar.DECEMBER, 31, 23, 59).getTimeInMillis()));
+        assertEquals(2025 * 12 + Calendar.JANUARY,
+                DateUtils.dueMonth(at("UTC", 2025, Calendar.JANUARY, 1, 0, 0).getTimeInMillis()));
+    }
+
+    @Test
+    public void monthKeyOfEpochDay_handlesLeapYearsAndDaysBefore1970() {
+        assertEquals(1970 * 12 + Calendar.JANUARY, DateUtils.monthKeyOfEpochDay(0));
+        assertEquals(1969 * 12 + Calendar.DECEMBER, DateUtils.monthKeyOfEpochDay(-1));
+        assertEquals(2024 * 12 + Calendar.FEBRUARY, DateUtils.monthKeyOfEpochDay(19782));
+        assertEquals(2024 * 12 + Calendar.MARCH, DateUtils.monthKeyOfEpochDay(19783));
+        // 1900 is not a leap year, 2000 is
+        assertEquals(1900 * 12 + Calendar.MARCH,
+                DateUtils.monthKeyOfEpochDay(DateUtils.epochDay(at("UTC", 1900, Calendar.MARCH, 1, 0, 0))));
+        assertEquals(2000 * 12 + Calendar.FEBRUARY,
+                DateUtils.monthKeyOfEpochDay(DateUtils.epochDay(at("UTC", 2000, Calendar.FEBRUARY, 29, 0, 0))));
+    }
+
+    @Test
+    public void monthKeyOfEpochDay_matchesUtcCalendar() {
+        Calendar calendar = at("UTC", 1960, Calendar.JANUARY, 1, 0, 0);
+        Calendar end = at("UTC", 2060, Calendar.JANUARY, 1, 0, 0);
+        while (calendar.before(end)) {
+            long day = DateUtils.epochDay(calendar);
+            assertEquals("day " + day, DateUtils.monthKey(calendar), DateUtils.monthKeyOfEpochDay(day));
+            assertEquals("day " + day, day, DateUtils.dueDay(calendar.getTimeInMillis()));
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+}